@@ -0,0 +1,103 @@
+#!/usr/bin/env bash
+# guarantee-bench.sh — Throughput of the seat processor under at-least-once (replays answered from
+# seat-reservation-window-store) against exactly_once_v2, on the same topology and load.
+#
+# Starts the all-in-one app once per mode against the local Docker Compose stack and saturates it
+# with saturate.js (closed loop, so the rates below are what the app sustains, not the offered load).
+# Reports per mode:
+#   - seat-processor records/s: records the seat processor consumed from seat-allocation-requests
+#     per second, from Kafka Streams' records-consumed-total, sampled over the run
+#   - completed/s: reservations resolved end to end per second (k6 reservation_completed rate)
+# NUM_SECTIONS must be large enough that sections do not sell out during the run; sold-out commands
+# are rejected by the router and never reach the seat processor.
+# Usage: VUS=500 DURATION=2m NUM_SECTIONS=2000 ./scripts/perf/guarantee-bench.sh
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+HOST_PORT="${HOST_PORT:-localhost:8080}"
+VUS="${VUS:-500}"
+DURATION="${DURATION:-2m}"
+NUM_SECTIONS="${NUM_SECTIONS:-2000}"
+SAMPLE_SECONDS="${SAMPLE_SECONDS:-5}"
+OUT_DIR="${OUT_DIR:-$ROOT/build/guarantee-bench}"
+
+CONSUMED_METRIC="kafka.stream.topic.records.consumed.total"
+CONSUMED_TOPIC="seat-allocation-requests"
+
+declare -A MODE_ARGS=(
+  [alos]="--spring.kafka.streams.properties[processing.guarantee]=at_least_once"
+  [eos-v2]="--spring.kafka.streams.properties[processing.guarantee]=exactly_once_v2"
+)
+MODES=(alos eos-v2)
+
+mkdir -p "$OUT_DIR"
+(cd "$ROOT" && ./gradlew -q bootJar)
+JAR=$(ls "$ROOT"/build/libs/*-SNAPSHOT.jar | grep -v plain | head -1)
+
+wait_for_health() {
+  for _ in $(seq 1 120); do
+    if curl -sf "http://$HOST_PORT/actuator/health" | grep -q '"UP"'; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "App did not become healthy" >&2
+  return 1
+}
+
+# Records the seat processor has consumed so far, summed over its tasks
+consumed() {
+  curl -sf "http://$HOST_PORT/actuator/metrics/$CONSUMED_METRIC?tag=topic:$CONSUMED_TOPIC" \
+    | jq '.measurements[0].value // 0' 2>/dev/null || echo 0
+}
+
+sample_consumed() {
+  while true; do
+    echo "$(date +%s) $(consumed)"
+    sleep "$SAMPLE_SECONDS"
+  done
+}
+
+# Rate between the first and last samples at which the count moved, i.e. while records were flowing
+sustained_rate() {
+  awk '
+    NR > 1 && $2 > prev { if (!t0) { t0 = pt; c0 = pc } t1 = $1; c1 = $2 }
+    { pt = $1; pc = $2; prev = $2 }
+    END { if (t1 > t0) printf "%d", (c1 - c0) / (t1 - t0); else print 0 }
+  ' "$1"
+}
+
+for mode in "${MODES[@]}"; do
+  echo "=== $mode ==="
+  # shellcheck disable=SC2086
+  java -jar "$JAR" ${MODE_ARGS[$mode]} \
+    "--management.endpoints.web.exposure.include=health,metrics" > "$OUT_DIR/$mode.log" 2>&1 &
+  APP_PID=$!
+  trap 'kill $APP_PID 2>/dev/null || true' EXIT
+
+  wait_for_health
+  sample_consumed > "$OUT_DIR/$mode.consumed" &
+  SAMPLER_PID=$!
+  k6 run -q -e HOST_PORT="$HOST_PORT" -e VUS="$VUS" -e DURATION="$DURATION" -e NUM_SECTIONS="$NUM_SECTIONS" \
+    --summary-export "$OUT_DIR/$mode.json" "$ROOT/scripts/perf/k6/saturate.js" || true
+  sleep "$SAMPLE_SECONDS"
+  kill "$SAMPLER_PID"
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+  trap - EXIT
+done
+
+echo ""
+printf "%-8s %22s %14s %16s %16s\n" "mode" "seat-processor rec/s" "completed/s" "reservation p95" "GET p95 (ms)"
+for mode in "${MODES[@]}"; do
+  jq -r --arg mode "$mode" --arg consumed "$(sustained_rate "$OUT_DIR/$mode.consumed")" '[
+      $mode,
+      $consumed,
+      (.metrics.reservation_completed.rate // 0 | floor),
+      (.metrics.reservation_time["p(95)"] | floor),
+      (.metrics["http_req_duration{method:GET}"]["p(95)"] // 0 | floor)
+    ] | @tsv' "$OUT_DIR/$mode.json" \
+    | awk -F'\t' '{ printf "%-8s %22s %14s %16s %16s\n", $1, $2, $3, $4, $5 }'
+done
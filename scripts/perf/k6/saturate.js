@@ -0,0 +1,33 @@
+// Saturation test: closed loop, each VU starts its next reservation as soon as the last one resolves,
+// so completed/s is what the system sustains rather than the offered rate.
+// Usage: k6 run scripts/perf/k6/saturate.js -e VUS=500 -e DURATION=2m -e NUM_SECTIONS=2000
+
+import { Trend, Counter } from 'k6/metrics';
+import { createTestData } from './lib/setup.js';
+import { reserveSeats } from './lib/reserve.js';
+
+const reservationTime = new Trend('reservation_time', true);
+const reservationCounter = new Counter('reservation_completed');
+
+const VUS = parseInt(__ENV.VUS || '500');
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+  discardResponseBodies: false,
+  scenarios: {
+    saturate: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: DURATION,
+      gracefulStop: '30s',
+    },
+  },
+};
+
+export function setup() {
+  return createTestData();
+}
+
+export default function (data) {
+  reserveSeats(data.eventId, data.sections, reservationTime, reservationCounter);
+}
@@ -0,0 +1,7 @@
+package com.keer.ticketmaster.config;
+
+public class CommandPublishException extends RuntimeException {
+    public CommandPublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,34 @@
+package com.keer.ticketmaster.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Maps {@link CommandPublisher} failures for every controller that sends commands.
+ */
+@RestControllerAdvice
+@Profile({"api", "default"})
+@Slf4j
+public class CommandPublishExceptionHandler {
+
+    @ExceptionHandler(ProducerSaturatedException.class)
+    public ResponseEntity<Map<String, String>> handleSaturated(ProducerSaturatedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(CommandPublishException.class)
+    public ResponseEntity<Map<String, String>> handlePublishFailure(CommandPublishException e) {
+        log.warn("{}: {}", e.getMessage(), e.getCause() != null ? e.getCause().getMessage() : "");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", e.getMessage()));
+    }
+}
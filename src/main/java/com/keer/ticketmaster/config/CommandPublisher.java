@@ -0,0 +1,132 @@
+package com.keer.ticketmaster.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Admission control in front of the producer for commands sent on behalf of HTTP requests.
+ *
+ * At most {@code max-in-flight} sends may be unacknowledged at once; beyond that a send is refused
+ * straight away with {@link ProducerSaturatedException} (503 + Retry-After) instead of blocking the
+ * request thread on a full producer buffer. Every send is timed ({@code kafka.command.send}) and
+ * failures reach the caller instead of being dropped with the ignored future.
+ *
+ * A record carrying several commands holds one slot per command: they are {@link #acquire acquired}
+ * as each command is accepted and handed over with {@link #sendAcquired}.
+ */
+@Component
+@Profile({"api", "default"})
+@Slf4j
+public class CommandPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlight;
+    private final long ackTimeoutMs;
+    private final Counter rejected;
+
+    public CommandPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${ticketmaster.kafka.producer.max-in-flight:10000}") int maxInFlight,
+                            @Value("${ticketmaster.kafka.producer.ack-timeout-ms:5000}") long ackTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.rejected = Counter.builder("kafka.command.rejected").register(meterRegistry);
+        Gauge.builder("kafka.command.in-flight", inFlight, s -> maxInFlight - s.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws ProducerSaturatedException if too many sends are outstanding; nothing was sent
+     */
+    public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object value) {
+        acquire(topic);
+        return sendAcquired(topic, key, value, 1);
+    }
+
+    /**
+     * Takes one in-flight slot for a command that will be sent later through {@link #sendAcquired}.
+     *
+     * @throws ProducerSaturatedException if too many sends are outstanding
+     */
+    public void acquire(String topic) {
+        if (!inFlight.tryAcquire()) {
+            rejected.increment();
+            throw new ProducerSaturatedException("Too many commands in flight to " + topic);
+        }
+    }
+
+    /**
+     * Sends a record whose {@code permits} slots were already {@link #acquire acquired}; they are
+     * released once the send completes or fails.
+     */
+    public CompletableFuture<SendResult<String, Object>> sendAcquired(String topic, String key, Object value, int permits) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, value);
+        } catch (RuntimeException e) {
+            inFlight.release(permits);
+            record(topic, "failure", start);
+            throw new CommandPublishException("Failed to send to " + topic, e);
+        }
+        return future.whenComplete((result, ex) -> {
+            inFlight.release(permits);
+            record(topic, ex == null ? "success" : "failure", start);
+        });
+    }
+
+    /**
+     * Sends and waits for the broker acknowledgement.
+     *
+     * @throws ProducerSaturatedException if too many sends are outstanding; nothing was sent
+     * @throws CommandPublishException if the send failed or was not acknowledged in time
+     */
+    public void sendAndAwait(String topic, String key, Object value) {
+        await(send(topic, key, value), topic);
+    }
+
+    /**
+     * Waits for a send made through this publisher, possibly on another thread (see
+     * {@code ReservationCommandBatcher}), with the same timeout and error mapping as {@link #sendAndAwait}.
+     */
+    public void await(CompletableFuture<?> future, String topic) {
+        try {
+            future.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProducerSaturatedException saturated) {
+                throw saturated;
+            }
+            throw new CommandPublishException("Failed to send to " + topic, e.getCause());
+        } catch (TimeoutException e) {
+            throw new CommandPublishException("No acknowledgement from " + topic + " within " + ackTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandPublishException("Interrupted while sending to " + topic, e);
+        }
+    }
+
+    private void record(String topic, String outcome, long startNanos) {
+        Timer.builder("kafka.command.send")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
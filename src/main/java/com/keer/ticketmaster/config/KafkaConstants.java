@@ -6,12 +6,18 @@ public final class KafkaConstants {
 
     public static final String RESERVATION_QUERY_STORE = "reservation-query-store";
     public static final String SEAT_INVENTORY_STORE = "seat-inventory-store";
+    public static final String SEAT_ALLOCATION_BUFFER_STORE = "seat-allocation-buffer-store";
+    public static final String SEAT_HOLD_STORE = "seat-hold-store";
+    public static final String SEAT_RESERVATION_STORE = "seat-reservation-window-store";
     public static final String SECTION_STATUS_STORE = "section-status-store";
 
     public static final String TOPIC_RESERVATION_COMMANDS = "reservation-commands";
+    public static final String TOPIC_RESERVATION_COMMAND_BATCHES = "reservation-command-batches";
     public static final String TOPIC_RESERVATION_COMPLETED = "reservation-completed";
     public static final String TOPIC_SEAT_ALLOCATION_REQUESTS = "seat-allocation-requests";
     public static final String TOPIC_SEAT_ALLOCATION_RESULTS = "seat-allocation-results";
+    public static final String TOPIC_SEAT_HOLD_CONFIRMATIONS = "seat-hold-confirmations";
+    public static final String TOPIC_SEAT_CANCELLATIONS = "seat-cancellations";
     public static final String TOPIC_SECTION_INIT = "section-init";
     public static final String TOPIC_SECTION_STATUS = "section-status";
 }
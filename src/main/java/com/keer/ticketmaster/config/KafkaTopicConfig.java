@@ -30,6 +30,11 @@ public class KafkaTopicConfig {
         return TopicBuilder.name(KafkaConstants.TOPIC_RESERVATION_COMMANDS).partitions(partitions).replicas(replicas).build();
     }
 
+    @Bean
+    public NewTopic reservationCommandBatchesTopic() {
+        return TopicBuilder.name(KafkaConstants.TOPIC_RESERVATION_COMMAND_BATCHES).partitions(partitions).replicas(replicas).build();
+    }
+
     @Bean
     public NewTopic reservationCompletedTopic() {
         return TopicBuilder.name(KafkaConstants.TOPIC_RESERVATION_COMPLETED).partitions(partitions).replicas(replicas).build();
@@ -44,4 +49,14 @@ public class KafkaTopicConfig {
     public NewTopic seatAllocationResultsTopic() {
         return TopicBuilder.name(KafkaConstants.TOPIC_SEAT_ALLOCATION_RESULTS).partitions(partitions).replicas(replicas).build();
     }
+
+    @Bean
+    public NewTopic seatHoldConfirmationsTopic() {
+        return TopicBuilder.name(KafkaConstants.TOPIC_SEAT_HOLD_CONFIRMATIONS).partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    public NewTopic seatCancellationsTopic() {
+        return TopicBuilder.name(KafkaConstants.TOPIC_SEAT_CANCELLATIONS).partitions(partitions).replicas(replicas).build();
+    }
 }
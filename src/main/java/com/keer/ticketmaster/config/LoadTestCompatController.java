@@ -1,16 +1,19 @@
 package com.keer.ticketmaster.config;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
 import com.keer.ticketmaster.event.dto.EventRequest;
 import com.keer.ticketmaster.event.dto.EventResponse;
 import com.keer.ticketmaster.event.dto.SectionRequest;
 import com.keer.ticketmaster.event.service.EventService;
 import com.keer.ticketmaster.reservation.dto.ReservationRequest;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import com.keer.ticketmaster.reservation.service.ReservationPendingRequests;
 import com.keer.ticketmaster.reservation.service.ReservationService;
 import com.keer.ticketmaster.venue.model.Venue;
 import com.keer.ticketmaster.venue.repository.VenueRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.DeferredResult;
@@ -32,6 +35,7 @@ public class LoadTestCompatController {
 
     private final EventService eventService;
     private final ReservationService reservationService;
+    private final ReservationPendingRequests pendingRequests;
     private final VenueRepository venueRepository;
 
     private final Map<String, EventInfo> eventCache = new ConcurrentHashMap<>();
@@ -55,7 +59,7 @@ public class LoadTestCompatController {
     @PostMapping("/v1/event")
     public ResponseEntity<GoEventResponse> createEvent(@RequestBody GoEventRequest request) {
         List<SectionRequest> sections = request.areas().stream()
-                .map(a -> new SectionRequest(a.areaId(), a.rowCount(), a.colCount()))
+                .map(a -> new SectionRequest(a.areaId(), a.rowCount(), a.colCount(), 0))
                 .toList();
 
         int totalCapacity = request.areas().stream()
@@ -100,6 +104,9 @@ public class LoadTestCompatController {
         reservationRequest.setUserId(request.userId());
 
         ReservationService.CreateResult result = reservationService.createReservation(reservationRequest);
+        if (result.reservationId() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result.status());
+        }
         return ResponseEntity.ok(result.reservationId());
     }
 
@@ -111,7 +118,8 @@ public class LoadTestCompatController {
     public DeferredResult<ResponseEntity<GoReservationResponse>> getReservation(
             @PathVariable String reservationId) {
 
-        DeferredResult<ResponseEntity<GoReservationResponse>> goDeferred = new DeferredResult<>(10_000L);
+        DeferredResult<ResponseEntity<GoReservationResponse>> goDeferred =
+                new DeferredResult<>(pendingRequests.pollTimeoutMs());
 
         // Get the internal DeferredResult from the reservation service
         DeferredResult<ResponseEntity<ReservationResponse>> internalDeferred =
@@ -122,6 +130,9 @@ public class LoadTestCompatController {
         internalDeferred.setResultHandler(result -> {
             if (result instanceof ResponseEntity<?> re && re.getBody() instanceof ReservationResponse r) {
                 goDeferred.setResult(ResponseEntity.ok(toGoResponse(r)));
+            } else if (result instanceof ResponseEntity<?> re) {
+                // 202 still pending, 429 too many parked polls
+                goDeferred.setResult(ResponseEntity.status(re.getStatusCode()).headers(re.getHeaders()).build());
             } else {
                 goDeferred.setResult(ResponseEntity.accepted().build());
             }
@@ -136,16 +147,17 @@ public class LoadTestCompatController {
     }
 
     private GoReservationResponse toGoResponse(ReservationResponse r) {
-        String state = "CONFIRMED".equals(r.getStatus()) ? "RESERVED" : r.getStatus();
+        String state = AllocationStatus.CONFIRMED.name().equals(r.getStatus()) ? "RESERVED" : r.getStatus();
 
+        // Seat labels are section-globalIndex (1-based, row-major); rows and cols are 0-based.
+        // Results without the section's row width (written before it was recorded) read as one row.
         List<GoSeat> seats = List.of();
+        int colCount = r.getSeatsPerRow() != null ? r.getSeatsPerRow() : Integer.MAX_VALUE;
         if (r.getAllocatedSeats() != null) {
             seats = r.getAllocatedSeats().stream()
                     .map(s -> {
-                        String[] parts = s.split("-");
-                        int row = parts[0].charAt(0) - 'A';
-                        int col = Integer.parseInt(parts[1]);
-                        return new GoSeat(row, col);
+                        int index = Integer.parseInt(s.substring(s.lastIndexOf('-') + 1)) - 1;
+                        return new GoSeat(index / colCount, index % colCount);
                     })
                     .toList();
         }
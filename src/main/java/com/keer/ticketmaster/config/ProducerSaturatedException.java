@@ -0,0 +1,7 @@
+package com.keer.ticketmaster.config;
+
+public class ProducerSaturatedException extends RuntimeException {
+    public ProducerSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -21,4 +21,7 @@ public class EventRequest {
     private Long venueId;
 
     private List<SectionRequest> sections;
+
+    /** Seat placement for every section: FIRST_FIT (default), BEST_FIT or CENTER_PREFERRED. */
+    private String allocationStrategy;
 }
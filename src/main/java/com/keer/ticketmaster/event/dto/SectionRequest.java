@@ -11,4 +11,7 @@ public class SectionRequest {
     private String section;
     private int rows;
     private int seatsPerRow;
+
+    /** Number of shards (row blocks on separate partitions) for a hot section; 0 or 1 keeps it unsharded. */
+    private int shards;
 }
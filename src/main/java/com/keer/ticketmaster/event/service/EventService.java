@@ -1,17 +1,19 @@
 package com.keer.ticketmaster.event.service;
 
 import com.keer.ticketmaster.avro.SectionInitCommand;
+import com.keer.ticketmaster.config.CommandPublisher;
 import com.keer.ticketmaster.config.KafkaConstants;
 import com.keer.ticketmaster.event.dto.SectionRequest;
 import com.keer.ticketmaster.event.dto.EventRequest;
 import com.keer.ticketmaster.event.dto.EventResponse;
 import com.keer.ticketmaster.event.model.Event;
 import com.keer.ticketmaster.event.repository.EventRepository;
+import com.keer.ticketmaster.streaming.seat.SeatAllocationStrategy;
+import com.keer.ticketmaster.streaming.seat.SectionKeys;
 import com.keer.ticketmaster.venue.model.Venue;
 import com.keer.ticketmaster.venue.repository.VenueRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,7 +25,7 @@ public class EventService {
 
     private final EventRepository eventRepository;
     private final VenueRepository venueRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final CommandPublisher commandPublisher;
 
     public EventResponse createEvent(EventRequest request) {
         Venue venue = venueRepository.findById(request.getVenueId()).orElse(null);
@@ -41,7 +43,7 @@ public class EventService {
         int totalSeats = 0;
         if (request.getSections() != null) {
             for (SectionRequest section : request.getSections()) {
-                totalSeats += publishSectionInit(saved.getId(), section);
+                totalSeats += publishSectionInit(saved.getId(), section, request.getAllocationStrategy());
             }
         }
 
@@ -60,19 +62,21 @@ public class EventService {
                 .toList();
     }
 
-    private int publishSectionInit(Long eventId, SectionRequest section) {
-        String key = eventId + "-" + section.getSection();
+    private int publishSectionInit(Long eventId, SectionRequest section, String allocationStrategy) {
+        String key = SectionKeys.sectionKey(eventId, section.getSection());
         int totalSeats = section.getRows() * section.getSeatsPerRow();
 
         SectionInitCommand command = SectionInitCommand.newBuilder()
                 .setEventId(eventId)
                 .setSection(section.getSection())
+                .setShardCount(Math.max(section.getShards(), 1))
                 .setRows(section.getRows())
                 .setSeatsPerRow(section.getSeatsPerRow())
                 .setInitialReserved(List.of())
+                .setAllocationStrategy(SeatAllocationStrategy.fromName(allocationStrategy).name())
                 .build();
 
-        kafkaTemplate.send(KafkaConstants.TOPIC_SECTION_INIT, key, command);
+        commandPublisher.sendAndAwait(KafkaConstants.TOPIC_SECTION_INIT, key, command);
         return totalSeats;
     }
 
@@ -1,27 +1,56 @@
 package com.keer.ticketmaster.reservation.controller;
 
+import com.keer.ticketmaster.reservation.dto.PeerWatchRequest;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import com.keer.ticketmaster.reservation.service.InteractiveQueryService;
+import com.keer.ticketmaster.reservation.service.PeerWatchHub;
 import com.keer.ticketmaster.reservation.service.ReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
+
+/**
+ * Instance-to-instance endpoints. Long-polls are forwarded over one stream per peer ({@code _stream})
+ * with ids registered in batches ({@code _watch}); see {@link PeerWatchHub}.
+ */
 @RestController
 @Profile({"api", "default"})
 @RequiredArgsConstructor
 public class InternalReservationController {
 
     private final ReservationService reservationService;
+    private final PeerWatchHub peerWatchHub;
+    private final InteractiveQueryService interactiveQueryService;
+
+    @GetMapping(value = "/internal/reservations/_stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam String peer) {
+        return peerWatchHub.open(peer);
+    }
+
+    @PostMapping("/internal/reservations/_watch")
+    public ResponseEntity<Void> watch(@RequestBody PeerWatchRequest request) {
+        peerWatchHub.watch(request.getPeer(), request.getReservationIds());
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/internal/reservations/_batch")
+    public List<ReservationResponse> getReservationsInternal(@RequestBody List<String> reservationIds) {
+        return interactiveQueryService.queryLocalReservations(reservationIds);
+    }
 
     @GetMapping("/internal/reservations/{reservationId}")
-    public DeferredResult<ResponseEntity<ReservationResponse>> getReservationInternal(
-            @PathVariable String reservationId) {
-        DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>(10_000L);
-        reservationService.waitLocally(reservationId, deferred);
-        return deferred;
+    public ResponseEntity<ReservationResponse> getReservationInternal(@PathVariable String reservationId) {
+        ReservationResponse response = reservationService.queryLocalStore(reservationId);
+        return response != null ? ResponseEntity.ok(response) : ResponseEntity.accepted().build();
     }
 }
@@ -1,18 +1,28 @@
 package com.keer.ticketmaster.reservation.controller;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.reservation.dto.ReservationBatchRequest;
+import com.keer.ticketmaster.reservation.dto.ReservationBatchResponse;
+import com.keer.ticketmaster.reservation.dto.ReservationOwnerRequest;
 import com.keer.ticketmaster.reservation.dto.ReservationRequest;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import com.keer.ticketmaster.reservation.service.InteractiveQueryService;
 import com.keer.ticketmaster.reservation.service.RemoteQueryException;
+import com.keer.ticketmaster.reservation.service.ReservationAccessDeniedException;
 import com.keer.ticketmaster.reservation.service.ReservationService;
 import com.keer.ticketmaster.reservation.service.StoreNotReadyException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,11 +30,17 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ReservationController {
 
+    static final int MAX_BATCH = 1000;
+
     private final ReservationService reservationService;
+    private final InteractiveQueryService interactiveQueryService;
 
     @PostMapping("/api/reservations")
     public ResponseEntity<Map<String, String>> createReservation(@RequestBody ReservationRequest request) {
         ReservationService.CreateResult result = reservationService.createReservation(request);
+        if (result.reservationId() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("status", result.status()));
+        }
         Map<String, String> body = new HashMap<>();
         body.put("reservationId", result.reservationId());
         if (result.status() != null) {
@@ -33,11 +49,92 @@ public class ReservationController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
     }
 
+    /**
+     * Create-and-wait variant: {@code POST /api/reservations?wait=5s} answers 200 with the
+     * CONFIRMED/REJECTED reservation, or 202 with the id if it takes longer than {@code wait}.
+     */
+    @PostMapping(value = "/api/reservations", params = "wait")
+    public DeferredResult<ResponseEntity<?>> createReservationAndWait(@RequestBody ReservationRequest request,
+                                                                     @RequestParam String wait) {
+        Duration timeout = DurationStyle.detectAndParse(wait, ChronoUnit.MILLIS);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("wait must not be negative: " + wait);
+        }
+        return reservationService.createReservationAndWait(request, timeout);
+    }
+
+    /**
+     * Status of many reservations at once (a cart, a reconciliation job), at most
+     * {@value #MAX_BATCH} ids per call.
+     */
+    @PostMapping("/api/reservations/_batch")
+    public ReservationBatchResponse getReservations(@RequestBody ReservationBatchRequest request) {
+        List<String> reservationIds = request.getReservationIds();
+        if (reservationIds == null || reservationIds.isEmpty() || reservationIds.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("reservationIds must hold 1 to " + MAX_BATCH + " ids");
+        }
+        return interactiveQueryService.queryReservations(reservationIds);
+    }
+
+    /**
+     * Confirms a HELD reservation before its hold expires: 202 once the confirmation is sent
+     * (poll GET for CONFIRMED or EXPIRED), 409 with the current status if it is not HELD, 403 if
+     * the body's userId is not the one that made the reservation.
+     */
+    @PostMapping("/api/reservations/{reservationId}/confirm")
+    public ResponseEntity<Map<String, String>> confirmReservation(@PathVariable String reservationId,
+                                                                  @RequestBody ReservationOwnerRequest request) {
+        ReservationResponse reservation = reservationService.confirmHold(reservationId, requireUserId(request));
+        if (reservation == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!AllocationStatus.HELD.name().equals(reservation.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("status", reservation.getStatus()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("reservationId", reservationId));
+    }
+
+    /**
+     * Cancels a HELD or CONFIRMED reservation and returns its seats: 202 once the cancellation is
+     * sent (poll GET for CANCELLED), 409 with the current status otherwise, 403 if the body's userId
+     * is not the one that made the reservation.
+     */
+    @PostMapping("/api/reservations/{reservationId}/cancel")
+    public ResponseEntity<Map<String, String>> cancelReservation(@PathVariable String reservationId,
+                                                                 @RequestBody ReservationOwnerRequest request) {
+        ReservationResponse reservation = reservationService.cancelReservation(reservationId, requireUserId(request));
+        if (reservation == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!ReservationService.isLive(reservation)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("status", reservation.getStatus()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("reservationId", reservationId));
+    }
+
+    private static String requireUserId(ReservationOwnerRequest request) {
+        if (request.getUserId() == null || request.getUserId().isEmpty()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        return request.getUserId();
+    }
+
     @GetMapping("/api/reservations/{reservationId}")
     public DeferredResult<ResponseEntity<ReservationResponse>> getReservation(@PathVariable String reservationId) {
         return reservationService.getReservationAsync(reservationId);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(ReservationAccessDeniedException.class)
+    public ResponseEntity<Map<String, String>> handleAccessDenied(ReservationAccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(StoreNotReadyException.class)
     public ResponseEntity<Map<String, String>> handleStoreNotReady(StoreNotReadyException e) {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
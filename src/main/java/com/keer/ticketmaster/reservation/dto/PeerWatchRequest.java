@@ -0,0 +1,18 @@
+package com.keer.ticketmaster.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeerWatchRequest {
+
+    // host:port of the instance holding the client long-polls
+    private String peer;
+
+    private List<String> reservationIds;
+}
@@ -0,0 +1,15 @@
+package com.keer.ticketmaster.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationBatchRequest {
+
+    private List<String> reservationIds;
+}
@@ -0,0 +1,22 @@
+package com.keer.ticketmaster.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationBatchResponse {
+
+    // Completed (CONFIRMED / REJECTED) reservations
+    private List<ReservationResponse> reservations;
+
+    // Not completed yet (or unknown id)
+    private List<String> pending;
+
+    // Owning instance unknown or unreachable right now; worth asking again
+    private List<String> unavailable;
+}
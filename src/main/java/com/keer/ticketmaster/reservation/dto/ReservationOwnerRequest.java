@@ -0,0 +1,14 @@
+package com.keer.ticketmaster.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationOwnerRequest {
+
+    // Must match the userId the reservation was made with
+    private String userId;
+}
@@ -20,6 +20,8 @@ public class ReservationResponse {
 
     private String section;
 
+    private Integer shard;
+
     private int seatCount;
 
     private String userId;
@@ -28,5 +30,15 @@ public class ReservationResponse {
 
     private List<String> allocatedSeats;
 
+    /**
+     * Row width of the section, to turn {@code allocatedSeats} back into rows; null if not recorded.
+     */
+    private Integer seatsPerRow;
+
     private Instant createdAt;
+
+    /**
+     * Deadline of a HELD reservation; null otherwise.
+     */
+    private Instant holdExpiresAt;
 }
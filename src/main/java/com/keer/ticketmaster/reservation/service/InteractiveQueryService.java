@@ -2,23 +2,37 @@ package com.keer.ticketmaster.reservation.service;
 
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
 import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.reservation.dto.ReservationBatchResponse;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import com.keer.ticketmaster.streaming.seat.SeatLabels;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.KafkaStreams;
-import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.QueryableStoreTypes;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.kafka.config.StreamsBuilderFactoryBean;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 @Profile({"api", "default"})
@@ -27,58 +41,140 @@ import java.time.Instant;
 public class InteractiveQueryService {
 
     private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+    private final ReservationRoutingTable routingTable;
     private final RestClient restClient;
 
-    @Value("${spring.kafka.streams.properties[application.server]}")
-    private String applicationServer;
-
     public HostInfo getKeyOwner(String reservationId) {
-        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
-        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
-            return null;
-        }
-
-        KeyQueryMetadata metadata = kafkaStreams.queryMetadataForKey(
-                KafkaConstants.RESERVATION_QUERY_STORE,
-                reservationId,
-                Serdes.String().serializer()
-        );
-
-        if (metadata == null || metadata.equals(KeyQueryMetadata.NOT_AVAILABLE)) {
-            return null;
-        }
-
-        return metadata.activeHost();
+        return routingTable.ownerOf(reservationId);
     }
 
     public boolean isLocal(HostInfo hostInfo) {
-        return isLocalHost(hostInfo);
+        return routingTable.isLocal(hostInfo);
     }
 
     public ReservationResponse queryReservation(String reservationId) {
-        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
-        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
-            throw new StoreNotReadyException("Kafka Streams is not running");
-        }
-
-        KeyQueryMetadata metadata = kafkaStreams.queryMetadataForKey(
-                KafkaConstants.RESERVATION_QUERY_STORE,
-                reservationId,
-                Serdes.String().serializer()
-        );
+        KafkaStreams kafkaStreams = runningStreams();
 
-        if (metadata == null || metadata.equals(KeyQueryMetadata.NOT_AVAILABLE)) {
+        HostInfo activeHost = routingTable.ownerOf(reservationId);
+        if (activeHost == null) {
             throw new StoreNotReadyException("Metadata not available for key: " + reservationId);
         }
 
-        HostInfo activeHost = metadata.activeHost();
-        if (isLocalHost(activeHost)) {
+        if (routingTable.isLocal(activeHost)) {
             return queryLocalStore(kafkaStreams, reservationId);
         } else {
             return queryRemoteStore(activeHost, reservationId);
         }
     }
 
+    /**
+     * Scatter-gather lookup: ids are grouped by owning instance, the local group is read from the
+     * store directly and every remote group with one call per instance, in parallel. A group that
+     * cannot be read, local or remote, is reported as unavailable without failing the others.
+     */
+    public ReservationBatchResponse queryReservations(Collection<String> reservationIds) {
+        List<String> localIds = new ArrayList<>();
+        Map<HostInfo, List<String>> remoteIds = new HashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        for (String reservationId : new LinkedHashSet<>(reservationIds)) {
+            HostInfo owner = routingTable.ownerOf(reservationId);
+            if (owner == null) {
+                unavailable.add(reservationId);
+            } else if (routingTable.isLocal(owner)) {
+                localIds.add(reservationId);
+            } else {
+                remoteIds.computeIfAbsent(owner, h -> new ArrayList<>()).add(reservationId);
+            }
+        }
+
+        List<ReservationResponse> found = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<HostInfo, Future<List<ReservationResponse>>> calls = new HashMap<>();
+            remoteIds.forEach((owner, ids) -> calls.put(owner, executor.submit(() -> queryRemoteStores(owner, ids))));
+
+            if (!localIds.isEmpty()) {
+                try {
+                    found.addAll(queryLocalStores(runningStreams(), localIds));
+                } catch (StoreNotReadyException | InvalidStateStoreException e) {
+                    log.warn("Batch query of the local store failed: {}", e.getMessage());
+                    unavailable.addAll(localIds);
+                }
+            }
+
+            for (Map.Entry<HostInfo, Future<List<ReservationResponse>>> call : calls.entrySet()) {
+                try {
+                    found.addAll(call.getValue().get());
+                } catch (ExecutionException e) {
+                    log.warn("Batch query to {} failed: {}", call.getKey(), e.getCause().getMessage());
+                    unavailable.addAll(remoteIds.get(call.getKey()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new StoreNotReadyException("Interrupted while querying " + call.getKey());
+                }
+            }
+        }
+
+        Set<String> answered = new HashSet<>(unavailable);
+        found.forEach(r -> answered.add(r.getReservationId()));
+        List<String> pending = reservationIds.stream()
+                .distinct()
+                .filter(id -> !answered.contains(id))
+                .toList();
+        return new ReservationBatchResponse(found, pending, unavailable);
+    }
+
+    /**
+     * Reads the given ids from this instance's store only; ids it does not hold are left out.
+     */
+    public List<ReservationResponse> queryLocalReservations(Collection<String> reservationIds) {
+        return queryLocalStores(runningStreams(), reservationIds);
+    }
+
+    private List<ReservationResponse> queryLocalStores(KafkaStreams kafkaStreams, Collection<String> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return List.of();
+        }
+        ReadOnlyKeyValueStore<String, ReservationCompletedEvent> store;
+        try {
+            store = kafkaStreams.store(
+                    StoreQueryParameters.fromNameAndType(
+                            KafkaConstants.RESERVATION_QUERY_STORE,
+                            QueryableStoreTypes.keyValueStore()
+                    )
+            );
+        } catch (Exception e) {
+            throw new StoreNotReadyException("Store not available: " + e.getMessage());
+        }
+
+        List<ReservationResponse> responses = new ArrayList<>(reservationIds.size());
+        for (String reservationId : reservationIds) {
+            ReservationCompletedEvent event = store.get(reservationId);
+            if (event != null) {
+                responses.add(toResponse(event));
+            }
+        }
+        return responses;
+    }
+
+    private List<ReservationResponse> queryRemoteStores(HostInfo hostInfo, List<String> reservationIds) {
+        String url = "http://%s:%d/internal/reservations/_batch".formatted(hostInfo.host(), hostInfo.port());
+        List<ReservationResponse> responses = restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(reservationIds)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ReservationResponse>>() {});
+        return responses != null ? responses : List.of();
+    }
+
+    private KafkaStreams runningStreams() {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
+            throw new StoreNotReadyException("Kafka Streams is not running");
+        }
+        return kafkaStreams;
+    }
+
     public ReservationResponse queryLocalStore(KafkaStreams kafkaStreams, String reservationId) {
         try {
             ReadOnlyKeyValueStore<String, ReservationCompletedEvent> store = kafkaStreams.store(
@@ -115,22 +211,18 @@ public class InteractiveQueryService {
         }
     }
 
-    private boolean isLocalHost(HostInfo hostInfo) {
-        String[] parts = applicationServer.split(":");
-        String localHost = parts[0];
-        int localPort = Integer.parseInt(parts[1]);
-        return hostInfo.host().equals(localHost) && hostInfo.port() == localPort;
-    }
-
     private ReservationResponse toResponse(ReservationCompletedEvent event) {
         return ReservationResponse.builder()
                 .reservationId(event.getReservationId())
                 .eventId(event.getEventId())
                 .section(event.getSection())
+                .shard(event.getShard())
                 .seatCount(event.getSeatCount())
                 .userId(event.getUserId())
-                .status(event.getStatus())
-                .allocatedSeats(event.getAllocatedSeats())
+                .status(event.getAllocationStatus().name())
+                .allocatedSeats(SeatLabels.of(event))
+                .seatsPerRow(event.getSeatsPerRow() == 0 ? null : event.getSeatsPerRow())
+                .holdExpiresAt(event.getHoldExpiresAt() == 0 ? null : Instant.ofEpochMilli(event.getHoldExpiresAt()))
                 .createdAt(Instant.ofEpochMilli(event.getTimestamp()))
                 .build();
     }
@@ -0,0 +1,244 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.keer.ticketmaster.reservation.dto.PeerWatchRequest;
+import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Peer side of the peer channel: forwards long-polls for reservations owned by another instance.
+ *
+ * Instead of one HTTP request per waiting client, each owner gets a single {@link PeerLink}: one
+ * long-lived event stream the owner pushes completions down, plus batched registrations of the ids
+ * being waited for. Ids registered while a batch is in flight go out together in the next one.
+ * Whenever the stream (re)connects, the owner says {@code ready} and every id still waiting is
+ * registered again, so nothing is lost across owner restarts or dropped connections. Every local
+ * poll waiting for an id is answered by its result, or with 429 when the owner had no room to park it.
+ */
+@Component
+@Profile({"api", "default"})
+@Slf4j
+public class PeerForwarder {
+
+    private static final int MAX_BATCH = 500;
+    private static final long MIN_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private final RestClient restClient;
+    private final String localPeer;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final ConcurrentHashMap<HostInfo, PeerLink> links = new ConcurrentHashMap<>();
+
+    public PeerForwarder(RestClient restClient, ReservationRoutingTable routingTable) {
+        this.restClient = restClient;
+        HostInfo localHost = routingTable.localHost();
+        this.localPeer = localHost.host() + ":" + localHost.port();
+    }
+
+    public void forward(HostInfo owner, String reservationId,
+                        DeferredResult<ResponseEntity<ReservationResponse>> deferred) {
+        links.computeIfAbsent(owner, PeerLink::new).watch(reservationId, deferred);
+    }
+
+    @PreDestroy
+    void close() {
+        links.values().forEach(PeerLink::close);
+        links.clear();
+    }
+
+    private final class PeerLink {
+
+        private final HostInfo owner;
+        private final String baseUrl;
+        // Lists only change inside waiting.compute, and are no longer shared once removed
+        private final ConcurrentHashMap<String, List<DeferredResult<ResponseEntity<ReservationResponse>>>> waiting =
+                new ConcurrentHashMap<>();
+        private final LinkedBlockingQueue<String> outbox = new LinkedBlockingQueue<>();
+        private final Thread reader;
+        private final Thread flusher;
+        private volatile boolean running = true;
+        private volatile long backoffMs = MIN_BACKOFF_MS;
+
+        PeerLink(HostInfo owner) {
+            this.owner = owner;
+            this.baseUrl = "http://%s:%d/internal/reservations".formatted(owner.host(), owner.port());
+            this.reader = Thread.ofVirtual().name("peer-stream-" + owner.port()).start(this::readLoop);
+            this.flusher = Thread.ofVirtual().name("peer-watch-" + owner.port()).start(this::flushLoop);
+        }
+
+        void watch(String reservationId, DeferredResult<ResponseEntity<ReservationResponse>> deferred) {
+            waiting.compute(reservationId, (id, deferreds) -> {
+                List<DeferredResult<ResponseEntity<ReservationResponse>>> list =
+                        deferreds != null ? deferreds : new ArrayList<>(1);
+                list.add(deferred);
+                return list;
+            });
+            deferred.onCompletion(() -> stopWaiting(reservationId, deferred));
+            deferred.onTimeout(() -> {
+                stopWaiting(reservationId, deferred);
+                deferred.setResult(ResponseEntity.accepted().build());
+            });
+            outbox.add(reservationId);
+        }
+
+        private void stopWaiting(String reservationId, DeferredResult<ResponseEntity<ReservationResponse>> deferred) {
+            waiting.computeIfPresent(reservationId, (id, deferreds) -> {
+                deferreds.remove(deferred);
+                return deferreds.isEmpty() ? null : deferreds;
+            });
+        }
+
+        private void answer(String reservationId, ResponseEntity<ReservationResponse> result) {
+            List<DeferredResult<ResponseEntity<ReservationResponse>>> deferreds = waiting.remove(reservationId);
+            if (deferreds != null) {
+                deferreds.forEach(deferred -> deferred.setResult(result));
+            }
+        }
+
+        void close() {
+            running = false;
+            reader.interrupt();
+            flusher.interrupt();
+        }
+
+        private void flushLoop() {
+            List<String> batch = new ArrayList<>();
+            while (running) {
+                try {
+                    String first = outbox.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    outbox.drainTo(batch, MAX_BATCH - 1);
+                    batch.removeIf(id -> !waiting.containsKey(id));
+                    List<String> ids = batch.stream().distinct().toList();
+                    if (!batch.isEmpty()) {
+                        restClient.post()
+                                .uri(baseUrl + "/_watch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(new PeerWatchRequest(localPeer, ids))
+                                .retrieve()
+                                .toBodilessEntity();
+                    }
+                    batch.clear();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.warn("Failed to register {} reservations with {}: {}", batch.size(), owner, e.getMessage());
+                    outbox.addAll(batch);
+                    batch.clear();
+                    if (!sleep(backoffMs)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void readLoop() {
+            while (running) {
+                try {
+                    restClient.get()
+                            .uri(baseUrl + "/_stream?peer={peer}", localPeer)
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .exchange((request, response) -> {
+                                if (!response.getStatusCode().is2xxSuccessful()) {
+                                    throw new IOException("stream rejected with " + response.getStatusCode());
+                                }
+                                readEvents(response.getBody());
+                                return null;
+                            });
+                } catch (Exception e) {
+                    log.debug("Peer stream to {} closed: {}", owner, e.getMessage());
+                }
+                if (waiting.isEmpty() && links.remove(owner, this)) {
+                    // Idle link to an owner we cannot reach (or no longer need); recreated on demand
+                    close();
+                    return;
+                }
+                if (!sleep(backoffMs)) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+
+        private void readEvents(InputStream body) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (running && (line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    dispatch(event, data.toString());
+                    event = null;
+                    data.setLength(0);
+                } else if (line.startsWith("event:")) {
+                    event = field(line, 6);
+                } else if (line.startsWith("data:")) {
+                    if (!data.isEmpty()) {
+                        data.append('\n');
+                    }
+                    data.append(field(line, 5));
+                }
+            }
+        }
+
+        private void dispatch(String event, String data) throws IOException {
+            if ("ready".equals(event)) {
+                backoffMs = MIN_BACKOFF_MS;
+                outbox.addAll(waiting.keySet());
+            } else if ("completed".equals(event)) {
+                ReservationResponse response = objectMapper.readValue(data, ReservationResponse.class);
+                answer(response.getReservationId(), ResponseEntity.ok(response));
+            } else if ("rejected".equals(event)) {
+                // The owner's registry was full; tell the clients to come back instead of letting them hang
+                answer(data, ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+            }
+        }
+
+        private static String field(String line, int prefixLength) {
+            String value = line.substring(prefixLength);
+            return value.startsWith(" ") ? value.substring(1) : value;
+        }
+
+        private boolean sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+                return running;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owner side of the peer channel: serves the reservations whose results live on this instance to
+ * the other API instances that are long-polling for them.
+ *
+ * Each peer keeps one stream open ({@link #open}) and registers the reservation ids it waits for in
+ * batches ({@link #watch}); every result is pushed down that stream as an SSE {@code completed} event
+ * when it resolves, and a watch this instance has no room to park is pushed back straight away as a
+ * {@code rejected} event. A peer whose stream drops re-registers everything it still waits for once it
+ * reconnects, so results are never buffered here. A peer's channel is dropped once it has neither an
+ * open stream nor watches.
+ */
+@Component
+@Profile({"api", "default"})
+@RequiredArgsConstructor
+@Slf4j
+public class PeerWatchHub {
+
+    private final ReservationService reservationService;
+
+    private final ConcurrentHashMap<String, PeerChannel> channels = new ConcurrentHashMap<>();
+
+    public SseEmitter open(String peer) {
+        SseEmitter emitter = new SseEmitter(0L); // no timeout, the peer reconnects when it breaks
+        PeerChannel channel = channels.compute(peer, (key, existing) -> {
+            PeerChannel attached = existing != null ? existing : new PeerChannel(key);
+            attached.attach(emitter);
+            return attached;
+        });
+
+        Runnable detach = () -> detach(channel, emitter);
+        emitter.onCompletion(detach);
+        emitter.onTimeout(detach);
+        emitter.onError(e -> detach.run());
+
+        // Tells the peer the stream is live, so registrations sent from now on cannot be missed
+        channel.send(SseEmitter.event().name("ready").data(peer));
+        return emitter;
+    }
+
+    /**
+     * Watches are parked in {@link ReservationPendingRequests} like any local poll, so they expire
+     * with the same timeout; an expired watch sends nothing and the peer answers its client itself.
+     */
+    public void watch(String peer, Collection<String> reservationIds) {
+        PeerChannel channel = channels.compute(peer, (key, existing) -> {
+            PeerChannel watched = existing != null ? existing : new PeerChannel(key);
+            watched.watches += reservationIds.size();
+            return watched;
+        });
+        for (String reservationId : reservationIds) {
+            DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>();
+            deferred.setResultHandler(result -> {
+                if (result instanceof ResponseEntity<?> re && re.getBody() instanceof ReservationResponse response) {
+                    channel.send(SseEmitter.event().name("completed").data(response));
+                } else if (result instanceof ResponseEntity<?> re && re.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                    channel.send(SseEmitter.event().name("rejected").data(reservationId));
+                }
+                release(channel);
+            });
+            reservationService.waitLocally(reservationId, deferred);
+        }
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    private void detach(PeerChannel channel, SseEmitter emitter) {
+        channels.computeIfPresent(channel.peer, (key, existing) -> {
+            if (existing == channel && channel.emitter == emitter) {
+                channel.emitter = null;
+            }
+            return existing.isIdle() ? null : existing;
+        });
+    }
+
+    private void release(PeerChannel channel) {
+        channels.computeIfPresent(channel.peer, (key, existing) -> {
+            if (existing == channel) {
+                channel.watches--;
+            }
+            return existing.isIdle() ? null : existing;
+        });
+    }
+
+    /**
+     * {@code emitter} and {@code watches} only change inside {@code channels.compute} for the peer.
+     */
+    private final class PeerChannel {
+
+        final String peer;
+        private volatile SseEmitter emitter;
+        private int watches;
+
+        PeerChannel(String peer) {
+            this.peer = peer;
+        }
+
+        void attach(SseEmitter emitter) {
+            if (this.emitter != null) {
+                this.emitter.complete();
+            }
+            this.emitter = emitter;
+        }
+
+        boolean isIdle() {
+            return emitter == null && watches <= 0;
+        }
+
+        /**
+         * Events for a peer without an open stream are dropped; it re-registers on reconnect.
+         */
+        void send(SseEmitter.SseEventBuilder event) {
+            SseEmitter target = emitter;
+            if (target == null) {
+                return;
+            }
+            try {
+                synchronized (this) {
+                    target.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Peer stream to {} broke: {}", peer, e.getMessage());
+                target.completeWithError(e);
+                detach(this, target);
+            }
+        }
+    }
+}
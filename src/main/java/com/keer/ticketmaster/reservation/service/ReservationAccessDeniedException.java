@@ -0,0 +1,7 @@
+package com.keer.ticketmaster.reservation.service;
+
+public class ReservationAccessDeniedException extends RuntimeException {
+    public ReservationAccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,164 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCommandBatch;
+import com.keer.ticketmaster.config.CommandPublisher;
+import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.config.ProducerSaturatedException;
+import com.keer.ticketmaster.streaming.seat.SectionKeys;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envelope mode for reservation commands: commands for the same {@code eventId-section} submitted
+ * within {@code window-us} of the first one are sent as one {@link ReservationCommandBatch} record on
+ * {@code reservation-command-batches} instead of one record each. A batch is sent early once it holds
+ * {@code max-size} commands.
+ *
+ * The record is keyed by section, this instance and a batch sequence, so even a hot section's envelopes
+ * from one API instance spread over partitions; each router task counts a section's commands against
+ * its share of the seats, so the commands must reach them evenly, as they do when keyed by reservation id.
+ *
+ * Each command takes its own {@link CommandPublisher} in-flight slot when submitted, so saturation is
+ * reported to that caller and the limit counts commands, not envelopes. Each command's future
+ * completes when its batch is acknowledged (or fails with it). Disabled with a window of 0.
+ */
+@Component
+@Profile({"api", "default"})
+@Slf4j
+public class ReservationCommandBatcher {
+
+    private final CommandPublisher commandPublisher;
+    private final String instance;
+    private final long windowMicros;
+    private final int maxSize;
+
+    private final AtomicLong batchSequence = new AtomicLong();
+    private final ConcurrentHashMap<String, OpenBatch> open = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("reservation-command-batcher").daemon().factory());
+
+    public ReservationCommandBatcher(CommandPublisher commandPublisher,
+                                     @Value("${spring.kafka.streams.properties[application.server]}") String instance,
+                                     @Value("${ticketmaster.reservation.command-batch.window-us:0}") long windowMicros,
+                                     @Value("${ticketmaster.reservation.command-batch.max-size:64}") int maxSize) {
+        this.commandPublisher = commandPublisher;
+        this.instance = instance;
+        this.windowMicros = windowMicros;
+        this.maxSize = Math.max(maxSize, 1);
+    }
+
+    public boolean isEnabled() {
+        return windowMicros > 0;
+    }
+
+    /**
+     * @throws ProducerSaturatedException if too many commands are in flight; the command was not queued
+     */
+    public CompletableFuture<Void> submit(ReservationCommand command) {
+        String key = SectionKeys.sectionKey(command.getEventId(), command.getSection());
+        commandPublisher.acquire(KafkaConstants.TOPIC_RESERVATION_COMMAND_BATCHES);
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        while (true) {
+            OpenBatch batch = open.computeIfAbsent(key, this::openBatch);
+            int size = batch.add(command, ack);
+            if (size > 0) {
+                if (size >= maxSize) {
+                    flush(batch);
+                }
+                return ack;
+            }
+            // Lost the race with a flush of this batch; the next one is opened above
+        }
+    }
+
+    private OpenBatch openBatch(String key) {
+        OpenBatch batch = new OpenBatch(key);
+        flusher.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+        return batch;
+    }
+
+    private void flush(OpenBatch batch) {
+        if (!batch.close()) {
+            return;
+        }
+        open.remove(batch.key, batch);
+
+        ReservationCommand first = batch.commands.getFirst();
+        ReservationCommandBatch record = ReservationCommandBatch.newBuilder()
+                .setEventId(first.getEventId())
+                .setSection(first.getSection())
+                .setCommands(batch.commands)
+                .build();
+        try {
+            commandPublisher.sendAcquired(KafkaConstants.TOPIC_RESERVATION_COMMAND_BATCHES,
+                            batch.key + "/" + instance + "/" + batchSequence.getAndIncrement(), record, batch.commands.size())
+                    .whenComplete((result, ex) -> batch.complete(ex));
+        } catch (RuntimeException e) {
+            batch.complete(e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        open.values().forEach(this::flush);
+        flusher.shutdown();
+    }
+
+    private static final class OpenBatch {
+
+        final String key;
+        final List<ReservationCommand> commands = new ArrayList<>();
+        final List<CompletableFuture<Void>> acks = new ArrayList<>();
+        private boolean closed;
+
+        OpenBatch(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the batch size after adding, or 0 if the batch was already flushed
+         */
+        synchronized int add(ReservationCommand command, CompletableFuture<Void> ack) {
+            if (closed) {
+                return 0;
+            }
+            commands.add(command);
+            acks.add(ack);
+            return commands.size();
+        }
+
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        void complete(Throwable failure) {
+            if (failure != null) {
+                log.warn("Failed to send {} reservation commands for {}: {}", acks.size(), key, failure.getMessage());
+            }
+            for (CompletableFuture<Void> ack : acks) {
+                if (failure == null) {
+                    ack.complete(null);
+                } else {
+                    ack.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.streaming.reservation.ReservationIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Issues reservation ids whose embedded {@code reservation-completed} partition is one hosted by this
+ * instance, so the result is materialized (and the pending long-poll resolved) in the JVM that took
+ * the POST. Ids are spread evenly over the local partitions, or over all partitions while the
+ * routing table is unknown (startup, rebalance).
+ */
+@Component
+@Profile({"api", "default"})
+@RequiredArgsConstructor
+public class ReservationIdGenerator {
+
+    private final ReservationRoutingTable routingTable;
+
+    @Value("${ticketmaster.kafka.partitions:32}")
+    private int partitions;
+
+    public String next() {
+        int[] local = routingTable.snapshot().localPartitions();
+        if (local.length > 0) {
+            int partition = local[ThreadLocalRandom.current().nextInt(local.length)];
+            if (partition < ReservationIds.MAX_PARTITIONS) {
+                return ReservationIds.generate(partition);
+            }
+        }
+        int bound = Math.min(Math.max(partitions, 1), ReservationIds.MAX_PARTITIONS);
+        return ReservationIds.generate(ThreadLocalRandom.current().nextInt(bound));
+    }
+}
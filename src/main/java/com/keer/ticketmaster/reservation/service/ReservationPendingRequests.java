@@ -2,49 +2,234 @@ package com.keer.ticketmaster.reservation.service;
 
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import com.keer.ticketmaster.streaming.seat.SeatLabels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Instant;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Long-polls parked until their reservation completes.
+ *
+ * Entries live in striped maps (for resolution by id) and in a hashed timing wheel (for expiry):
+ * every poll has the same timeout, so the wheel only needs enough {@link #TICK_MS} slots to cover
+ * it, registration pushes onto one slot and each tick expires one whole slot. Entries resolved
+ * earlier are left in their slot and skipped when it expires. The container's per-request async
+ * timeout is only a backstop ({@link #backstopTimeoutMs()}).
+ *
+ * The registry is bounded; when full, polls are answered 429 straight away instead of parked.
+ */
 @Component
 @Profile({"api", "default"})
 @Slf4j
 public class ReservationPendingRequests {
 
-    private final ConcurrentHashMap<String, DeferredResult<ResponseEntity<ReservationResponse>>> pending =
-            new ConcurrentHashMap<>();
+    static final long TICK_MS = 100;
+    private static final int STRIPES = 64;
+    private static final long BACKSTOP_MS = 5_000;
 
-    public void register(String reservationId, DeferredResult<ResponseEntity<ReservationResponse>> deferred) {
-        pending.put(reservationId, deferred);
-        deferred.onCompletion(() -> pending.remove(reservationId));
+    private final long pollTimeoutMs;
+    private final int maxPending;
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, Entry>[] stripes = new ConcurrentHashMap[STRIPES];
+    private final AtomicReferenceArray<Entry> wheel;
+    private final int wheelMask;
+    private final long startMs;
+    private long expiredUpToTick;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter registered;
+    private final Counter resolved;
+    private final Counter expired;
+    private final Counter rejected;
+
+    public ReservationPendingRequests(MeterRegistry meterRegistry,
+                                      @Value("${ticketmaster.reservation.poll-timeout-ms:10000}") long pollTimeoutMs,
+                                      @Value("${ticketmaster.reservation.max-pending:200000}") int maxPending) {
+        this(meterRegistry, pollTimeoutMs, maxPending, System.currentTimeMillis());
+    }
+
+    ReservationPendingRequests(MeterRegistry meterRegistry, long pollTimeoutMs, int maxPending, long startMs) {
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.maxPending = maxPending;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        // One extra lap of slack so a slot is never reused before it has expired
+        int slots = Integer.highestOneBit((int) (pollTimeoutMs / TICK_MS + 2) * 2);
+        this.wheel = new AtomicReferenceArray<>(slots);
+        this.wheelMask = slots - 1;
+        this.startMs = startMs;
+        this.expiredUpToTick = tickAt(startMs);
+
+        this.registered = counter(meterRegistry, "registered");
+        this.resolved = counter(meterRegistry, "resolved");
+        this.expired = counter(meterRegistry, "expired");
+        this.rejected = counter(meterRegistry, "rejected");
+        Gauge.builder("reservation.pending.active", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("reservation.pending.requests").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    public long pollTimeoutMs() {
+        return pollTimeoutMs;
+    }
+
+    /**
+     * Container timeout for a poll parked here: late enough that the wheel always expires it first.
+     */
+    public long backstopTimeoutMs() {
+        return pollTimeoutMs + BACKSTOP_MS;
+    }
+
+    /**
+     * @return false if the registry is full; the caller answers instead of parking the poll
+     */
+    public boolean register(String reservationId, DeferredResult<ResponseEntity<ReservationResponse>> deferred) {
+        if (size.incrementAndGet() > maxPending) {
+            size.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        long deadlineTick = tickAt(System.currentTimeMillis() + pollTimeoutMs) + 1;
+        Entry entry = new Entry(reservationId, deferred, deadlineTick);
+
+        Entry previous = stripe(reservationId).put(reservationId, entry);
+        if (previous != null) {
+            // One poll per reservation; the older one is left to the wheel
+            size.decrementAndGet();
+        }
+        push(entry);
+        registered.increment();
+
+        deferred.onCompletion(() -> remove(entry));
         deferred.onTimeout(() -> {
-            pending.remove(reservationId);
+            remove(entry);
             deferred.setResult(ResponseEntity.accepted().build());
         });
+        return true;
+    }
+
+    /**
+     * Drops a parked poll without answering it, for a command that was never sent.
+     */
+    public void unregister(String reservationId) {
+        Entry entry = stripe(reservationId).get(reservationId);
+        if (entry != null) {
+            remove(entry);
+        }
     }
 
     public void resolve(ReservationCompletedEvent event) {
         String reservationId = event.getReservationId();
-        DeferredResult<ResponseEntity<ReservationResponse>> deferred = pending.remove(reservationId);
-        if (deferred != null) {
+        Entry entry = stripe(reservationId).remove(reservationId);
+        if (entry != null) {
+            size.decrementAndGet();
+            DeferredResult<ResponseEntity<ReservationResponse>> deferred = entry.deferred;
+            entry.deferred = null; // the entry stays in its wheel slot until then; keep it small
+            resolved.increment();
             deferred.setResult(ResponseEntity.ok(toResponse(event)));
             log.debug("Resolved pending request for reservation {}", reservationId);
         }
     }
 
+    public int size() {
+        return size.get();
+    }
+
+    @Scheduled(fixedRate = TICK_MS)
+    void advance() {
+        advance(System.currentTimeMillis());
+    }
+
+    synchronized void advance(long nowMs) {
+        long nowTick = tickAt(nowMs);
+        while (expiredUpToTick < nowTick) {
+            expiredUpToTick++;
+            Entry entry = wheel.getAndSet((int) (expiredUpToTick & wheelMask), null);
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                if (entry.deadlineTick > expiredUpToTick) {
+                    push(entry); // not due yet (registered a lap ahead)
+                } else {
+                    DeferredResult<ResponseEntity<ReservationResponse>> deferred = entry.deferred;
+                    remove(entry);
+                    // Still unanswered: timed out, or superseded by a newer poll for the same id
+                    if (deferred != null && deferred.setResult(ResponseEntity.accepted().build())) {
+                        expired.increment();
+                    }
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private void push(Entry entry) {
+        int slot = (int) (entry.deadlineTick & wheelMask);
+        Entry head;
+        do {
+            head = wheel.get(slot);
+            entry.next = head;
+        } while (!wheel.compareAndSet(slot, head, entry));
+    }
+
+    private boolean remove(Entry entry) {
+        if (stripe(entry.reservationId).remove(entry.reservationId, entry)) {
+            size.decrementAndGet();
+            entry.deferred = null;
+            return true;
+        }
+        return false;
+    }
+
+    private ConcurrentHashMap<String, Entry> stripe(String reservationId) {
+        return stripes[reservationId.hashCode() & (STRIPES - 1)];
+    }
+
+    private long tickAt(long epochMs) {
+        return (epochMs - startMs) / TICK_MS;
+    }
+
+    private static final class Entry {
+        final String reservationId;
+        volatile DeferredResult<ResponseEntity<ReservationResponse>> deferred;
+        final long deadlineTick;
+        Entry next;
+
+        Entry(String reservationId, DeferredResult<ResponseEntity<ReservationResponse>> deferred, long deadlineTick) {
+            this.reservationId = reservationId;
+            this.deferred = deferred;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
     private ReservationResponse toResponse(ReservationCompletedEvent event) {
         return ReservationResponse.builder()
                 .reservationId(event.getReservationId())
                 .eventId(event.getEventId())
                 .section(event.getSection())
+                .shard(event.getShard())
                 .seatCount(event.getSeatCount())
                 .userId(event.getUserId())
-                .status(event.getStatus())
-                .allocatedSeats(event.getAllocatedSeats())
+                .status(event.getAllocationStatus().name())
+                .allocatedSeats(SeatLabels.of(event))
+                .seatsPerRow(event.getSeatsPerRow() == 0 ? null : event.getSeatsPerRow())
+                .holdExpiresAt(event.getHoldExpiresAt() == 0 ? null : Instant.ofEpochMilli(event.getHoldExpiresAt()))
                 .build();
     }
 }
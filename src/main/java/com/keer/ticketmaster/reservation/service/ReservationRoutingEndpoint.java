@@ -0,0 +1,41 @@
+package com.keer.ticketmaster.reservation.service;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/routing}: this instance's reservation routing table, for debugging misrouted long-polls.
+ */
+@Component
+@Profile({"api", "default"})
+@Endpoint(id = "routing")
+@RequiredArgsConstructor
+public class ReservationRoutingEndpoint {
+
+    private final ReservationRoutingTable routingTable;
+
+    @ReadOperation
+    public Map<String, Object> routing() {
+        ReservationRoutingTable.Snapshot snapshot = routingTable.snapshot();
+        List<String> owners = new ArrayList<>(snapshot.owners().length);
+        for (HostInfo owner : snapshot.owners()) {
+            owners.add(owner == null ? null : owner.host() + ":" + owner.port());
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("localHost", routingTable.localHost().host() + ":" + routingTable.localHost().port());
+        body.put("builtAt", snapshot.builtAt());
+        body.put("partitionOwners", owners);
+        body.put("localPartitions", snapshot.localPartitions());
+        return body;
+    }
+}
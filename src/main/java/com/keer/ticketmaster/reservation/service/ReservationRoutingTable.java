@@ -0,0 +1,124 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.streaming.reservation.ReservationIdPartitioner;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * Which API instance hosts the {@code reservation-query-store} partition of a reservation.
+ *
+ * The table is an immutable partition -> host snapshot, rebuilt from Kafka Streams metadata each
+ * time the local instance becomes RUNNING (after every rebalance) and emptied on any other state,
+ * so lookups are a partition computation plus an array read. An empty table means "unknown",
+ * exactly like metadata being unavailable before.
+ *
+ * The table is sized from the topic's partition count ({@code ticketmaster.kafka.partitions}), not from
+ * the partitions that happen to be assigned, so a reservation always maps to its real partition; one
+ * with no owner at the moment is unknown rather than hashed onto another host.
+ */
+@Component
+@Profile({"api", "default"})
+@Slf4j
+public class ReservationRoutingTable implements KafkaStreams.StateListener {
+
+    private static final ReservationIdPartitioner PARTITIONER = new ReservationIdPartitioner();
+
+    /**
+     * @param localPartitions the partitions hosted by this instance, ascending
+     */
+    public record Snapshot(HostInfo[] owners, int[] localPartitions, Instant builtAt) {
+        static final Snapshot EMPTY = new Snapshot(new HostInfo[0], new int[0], null);
+    }
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+    private final HostInfo localHost;
+    private final int partitions;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ReservationRoutingTable(StreamsBuilderFactoryBean streamsBuilderFactoryBean,
+                                   @Value("${spring.kafka.streams.properties[application.server]}") String applicationServer,
+                                   @Value("${ticketmaster.kafka.partitions:32}") int partitions) {
+        this.streamsBuilderFactoryBean = streamsBuilderFactoryBean;
+        this.localHost = HostInfo.buildFromEndpoint(applicationServer);
+        this.partitions = partitions;
+        streamsBuilderFactoryBean.setStateListener(this);
+    }
+
+    @Override
+    public void onChange(KafkaStreams.State newState, KafkaStreams.State oldState) {
+        if (newState == KafkaStreams.State.RUNNING) {
+            refresh();
+        } else {
+            snapshot = Snapshot.EMPTY;
+        }
+    }
+
+    void refresh() {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null) {
+            snapshot = Snapshot.EMPTY;
+            return;
+        }
+        Collection<StreamsMetadata> metadata = kafkaStreams.streamsMetadataForStore(KafkaConstants.RESERVATION_QUERY_STORE);
+
+        // A partition beyond the configured count means the topic was grown without updating the setting
+        int partitions = this.partitions;
+        for (StreamsMetadata client : metadata) {
+            for (TopicPartition tp : client.topicPartitions()) {
+                if (tp.topic().equals(KafkaConstants.TOPIC_RESERVATION_COMPLETED) && tp.partition() >= partitions) {
+                    log.warn("{} has partition {}, beyond ticketmaster.kafka.partitions={}",
+                            tp.topic(), tp.partition(), this.partitions);
+                    partitions = tp.partition() + 1;
+                }
+            }
+        }
+        HostInfo[] owners = new HostInfo[partitions];
+        for (StreamsMetadata client : metadata) {
+            for (TopicPartition tp : client.topicPartitions()) {
+                if (tp.topic().equals(KafkaConstants.TOPIC_RESERVATION_COMPLETED)) {
+                    owners[tp.partition()] = client.hostInfo();
+                }
+            }
+        }
+        int[] localPartitions = IntStream.range(0, partitions)
+                .filter(p -> localHost.equals(owners[p]))
+                .toArray();
+        snapshot = new Snapshot(owners, localPartitions, Instant.now());
+        log.info("Reservation routing table rebuilt: {} partitions over {} instances", partitions, metadata.size());
+    }
+
+    /**
+     * @return the instance hosting the reservation's partition, or null if not known right now
+     */
+    public HostInfo ownerOf(String reservationId) {
+        HostInfo[] owners = snapshot.owners();
+        if (owners.length == 0) {
+            return null;
+        }
+        return owners[PARTITIONER.partition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, reservationId, owners.length)];
+    }
+
+    public boolean isLocal(HostInfo hostInfo) {
+        return localHost.equals(hostInfo);
+    }
+
+    public HostInfo localHost() {
+        return localHost;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+}
@@ -1,21 +1,28 @@
 package com.keer.ticketmaster.reservation.service;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.CancelReservationCommand;
+import com.keer.ticketmaster.avro.HoldConfirmCommand;
 import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.config.CommandPublisher;
 import com.keer.ticketmaster.config.KafkaConstants;
 import com.keer.ticketmaster.reservation.dto.ReservationRequest;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import com.keer.ticketmaster.streaming.seat.SectionKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.streams.state.HostInfo;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Profile({"api", "default"})
@@ -23,19 +30,106 @@ import java.util.UUID;
 @Slf4j
 public class ReservationService {
 
-    private static final long ASYNC_TIMEOUT_MS = 10_000;
-
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final CommandPublisher commandPublisher;
+    private final ReservationCommandBatcher commandBatcher;
     private final InteractiveQueryService interactiveQueryService;
     private final ReservationPendingRequests pendingRequests;
-    private final RestClient restClient;
+    private final SectionAvailability sectionAvailability;
+    private final ReservationIdGenerator reservationIdGenerator;
+    private final PeerForwarder peerForwarder;
+
+    public static final String STATUS_SOLD_OUT = "SOLD_OUT";
 
+    /**
+     * @param reservationId null if the request was rejected up front (see {@code status})
+     */
     public record CreateResult(String reservationId, String status) {}
 
     public CreateResult createReservation(ReservationRequest request) {
-        String reservationId = UUID.randomUUID().toString();
+        // Sold out is final for the sale: answer synchronously and keep the request off Kafka
+        if (sectionAvailability.isSoldOut(request.getEventId(), request.getSection())) {
+            return new CreateResult(null, STATUS_SOLD_OUT);
+        }
+
+        String reservationId = reservationIdGenerator.next();
+        // 202 only once the command is on Kafka; saturation and failures surface as 503
+        commandPublisher.await(publish(toCommand(reservationId, request)), KafkaConstants.TOPIC_RESERVATION_COMMANDS);
+        return new CreateResult(reservationId, null);
+    }
+
+    /**
+     * Creates the reservation and answers with its outcome in the same exchange. The poll is parked
+     * before the command is produced, so the result cannot arrive unobserved. If the outcome is not
+     * known within {@code wait} (capped at the poll timeout), answers 202 with the id like
+     * {@link #createReservation}, and the client falls back to GET.
+     */
+    public DeferredResult<ResponseEntity<?>> createReservationAndWait(ReservationRequest request, Duration wait) {
+        // A zero async timeout would mean "none" to the container
+        long timeoutMs = Math.max(1, Math.min(wait.toMillis(), pendingRequests.pollTimeoutMs()));
+        DeferredResult<ResponseEntity<?>> outcome = new DeferredResult<>(timeoutMs);
+
+        if (sectionAvailability.isSoldOut(request.getEventId(), request.getSection())) {
+            outcome.setResult(ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("status", STATUS_SOLD_OUT)));
+            return outcome;
+        }
+
+        String reservationId = reservationIdGenerator.next();
+        ResponseEntity<?> accepted = ResponseEntity.accepted().body(Map.of("reservationId", reservationId));
+        outcome.onTimeout(() -> outcome.setResult(accepted));
+
+        // Only wait where the result will be materialized; otherwise this is a plain create
+        boolean parkedHere = false;
+        HostInfo keyOwner = interactiveQueryService.getKeyOwner(reservationId);
+        if (keyOwner == null || interactiveQueryService.isLocal(keyOwner)) {
+            DeferredResult<ResponseEntity<ReservationResponse>> parked = new DeferredResult<>();
+            parked.setResultHandler(result -> {
+                if (result instanceof ResponseEntity<?> re && re.getBody() instanceof ReservationResponse) {
+                    outcome.setResult(re);
+                } else {
+                    outcome.setResult(accepted);
+                }
+            });
+            parkedHere = pendingRequests.register(reservationId, parked);
+        }
+
+        boolean answerOnAck = !parkedHere;
+        CompletableFuture<?> sent;
+        try {
+            sent = publish(toCommand(reservationId, request));
+        } catch (RuntimeException e) {
+            // Nothing was sent, so no result will ever resolve the parked poll
+            if (parkedHere) {
+                pendingRequests.unregister(reservationId);
+            }
+            throw e;
+        }
+        sent.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.warn("Failed to send reservation command {}: {}", reservationId, ex.getMessage());
+                if (!answerOnAck) {
+                    pendingRequests.unregister(reservationId);
+                }
+                outcome.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("error", "Failed to send reservation " + reservationId)));
+            } else if (answerOnAck) {
+                outcome.setResult(accepted);
+            }
+        });
+        return outcome;
+    }
+
+    // Key = reservationId (or eventId-section/instance for an envelope); Reservation Processor handles pre-filter
+    // and re-key, and the result lands on the reservation-completed partition embedded in the id — one
+    // hosted by this pod
+    private CompletableFuture<?> publish(ReservationCommand command) {
+        if (commandBatcher.isEnabled()) {
+            return commandBatcher.submit(command);
+        }
+        return commandPublisher.send(KafkaConstants.TOPIC_RESERVATION_COMMANDS, command.getReservationId(), command);
+    }
 
-        ReservationCommand command = ReservationCommand.newBuilder()
+    private ReservationCommand toCommand(String reservationId, ReservationRequest request) {
+        return ReservationCommand.newBuilder()
                 .setReservationId(reservationId)
                 .setEventId(request.getEventId())
                 .setSection(request.getSection())
@@ -43,26 +137,92 @@ public class ReservationService {
                 .setUserId(request.getUserId())
                 .setTimestamp(Instant.now().toEpochMilli())
                 .build();
+    }
 
-        // Key = reservationId; Reservation Processor handles pre-filter and re-key
-        kafkaTemplate.send(KafkaConstants.TOPIC_RESERVATION_COMMANDS, reservationId, command);
+    /**
+     * Confirms a HELD reservation (payment went through). The command goes straight to the seat
+     * processor partition holding the section, which confirms it unless the hold has expired; the
+     * outcome shows up on the reservation like any other result.
+     *
+     * @return the reservation as it was before confirming, null if unknown; only a HELD one is sent on
+     * @throws ReservationAccessDeniedException if the reservation is not {@code userId}'s
+     */
+    public ReservationResponse confirmHold(String reservationId, String userId) {
+        ReservationResponse reservation = interactiveQueryService.queryReservation(reservationId);
+        checkOwner(reservation, userId);
+        if (reservation == null || !AllocationStatus.HELD.name().equals(reservation.getStatus())) {
+            return reservation;
+        }
 
-        return new CreateResult(reservationId, null);
+        HoldConfirmCommand command = HoldConfirmCommand.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(reservation.getEventId())
+                .setSection(reservation.getSection())
+                .setShard(reservation.getShard())
+                .setHoldExpiresAt(reservation.getHoldExpiresAt().toEpochMilli())
+                .setTimestamp(Instant.now().toEpochMilli())
+                .build();
+        String storeKey = SectionKeys.storeKey(command.getEventId(), command.getSection(), command.getShard());
+        commandPublisher.sendAndAwait(KafkaConstants.TOPIC_SEAT_HOLD_CONFIRMATIONS, storeKey, command);
+        return reservation;
     }
 
-    public DeferredResult<ResponseEntity<ReservationResponse>> getReservationAsync(String reservationId) {
-        DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>(ASYNC_TIMEOUT_MS);
+    /**
+     * Cancels a HELD or CONFIRMED reservation. Like a confirmation the command goes to the seat
+     * processor partition holding the section, which frees the seats and publishes CANCELLED; a
+     * cancel racing an expiry or another cancel is dropped there.
+     *
+     * @return the reservation as it was before cancelling, null if unknown; only a live one is sent on
+     * @throws ReservationAccessDeniedException if the reservation is not {@code userId}'s
+     */
+    public ReservationResponse cancelReservation(String reservationId, String userId) {
+        ReservationResponse reservation = interactiveQueryService.queryReservation(reservationId);
+        checkOwner(reservation, userId);
+        if (reservation == null || !isLive(reservation)) {
+            return reservation;
+        }
 
+        CancelReservationCommand command = CancelReservationCommand.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(reservation.getEventId())
+                .setSection(reservation.getSection())
+                .setShard(reservation.getShard())
+                .setTimestamp(Instant.now().toEpochMilli())
+                .build();
+        String storeKey = SectionKeys.storeKey(command.getEventId(), command.getSection(), command.getShard());
+        commandPublisher.sendAndAwait(KafkaConstants.TOPIC_SEAT_CANCELLATIONS, storeKey, command);
+        return reservation;
+    }
+
+    private static void checkOwner(ReservationResponse reservation, String userId) {
+        if (reservation != null && !reservation.getUserId().equals(userId)) {
+            throw new ReservationAccessDeniedException("Reservation " + reservation.getReservationId()
+                    + " does not belong to user " + userId);
+        }
+    }
+
+    public static boolean isLive(ReservationResponse reservation) {
+        return AllocationStatus.HELD.name().equals(reservation.getStatus())
+                || AllocationStatus.CONFIRMED.name().equals(reservation.getStatus());
+    }
+
+    public DeferredResult<ResponseEntity<ReservationResponse>> getReservationAsync(String reservationId) {
         HostInfo keyOwner = interactiveQueryService.getKeyOwner(reservationId);
 
         if (keyOwner == null || interactiveQueryService.isLocal(keyOwner)) {
-            // Key is on this pod (or metadata unavailable) — register and wait locally
+            // Key is on this pod (or metadata unavailable) — register and wait locally; the pending
+            // registry times the poll out, the container timeout is only a backstop
+            DeferredResult<ResponseEntity<ReservationResponse>> deferred =
+                    new DeferredResult<>(pendingRequests.backstopTimeoutMs());
             waitLocally(reservationId, deferred);
-        } else {
-            // Key is on another pod — forward long-poll to the correct pod
-            forwardToOwner(keyOwner, reservationId, deferred);
+            return deferred;
         }
 
+        // Key is on another pod (GET landed elsewhere, or partitions moved since the POST) — wait on
+        // the shared channel to that pod
+        DeferredResult<ResponseEntity<ReservationResponse>> deferred =
+                new DeferredResult<>(pendingRequests.pollTimeoutMs());
+        peerForwarder.forward(keyOwner, reservationId, deferred);
         return deferred;
     }
 
@@ -73,7 +233,12 @@ public class ReservationService {
             return;
         }
 
-        pendingRequests.register(reservationId, deferred);
+        if (!pendingRequests.register(reservationId, deferred)) {
+            deferred.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build());
+            return;
+        }
 
         // Double-check: result may have arrived between the store read and registration
         response = queryLocalStore(reservationId);
@@ -82,30 +247,10 @@ public class ReservationService {
         }
     }
 
-    private void forwardToOwner(HostInfo owner, String reservationId,
-                                DeferredResult<ResponseEntity<ReservationResponse>> deferred) {
-        String url = "http://%s:%d/internal/reservations/%s".formatted(
-                owner.host(), owner.port(), reservationId);
-
-        Thread.startVirtualThread(() -> {
-            try {
-                ReservationResponse response = restClient.get()
-                        .uri(url)
-                        .retrieve()
-                        .body(ReservationResponse.class);
-                if (response != null) {
-                    deferred.setResult(ResponseEntity.ok(response));
-                } else {
-                    deferred.setResult(ResponseEntity.accepted().build());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to forward reservation query to {}: {}", url, e.getMessage());
-                deferred.setResult(ResponseEntity.accepted().build());
-            }
-        });
-    }
-
-    private ReservationResponse queryLocalStore(String reservationId) {
+    /**
+     * Point lookup without waiting; null if the reservation has not completed yet.
+     */
+    public ReservationResponse queryLocalStore(String reservationId) {
         try {
             return interactiveQueryService.queryReservation(reservationId);
         } catch (StoreNotReadyException e) {
@@ -0,0 +1,69 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.streaming.seat.SectionKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local view of section availability, fed from {@code section-status}.
+ *
+ * Every API pod reads all partitions of the topic from the beginning (manual assignment, no
+ * consumer group rebalancing), so each pod holds the full view. Reads are lock-free map lookups,
+ * which lets requests for a sold-out section be rejected without touching Kafka.
+ *
+ * The view is only ever used to reject: a section that is unknown or not yet caught up is treated
+ * as available and goes through the router and seat processor as before, which stay authoritative.
+ */
+@Component
+@Profile({"api", "default"})
+@Slf4j
+public class SectionAvailability {
+
+    // key = eventId-section[#shard], as on section-status
+    private final ConcurrentHashMap<String, SectionStatusEvent> statuses = new ConcurrentHashMap<>();
+
+    @KafkaListener(
+            id = "section-availability",
+            topicPartitions = @TopicPartition(
+                    topic = KafkaConstants.TOPIC_SECTION_STATUS,
+                    partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+            properties = "enable.auto.commit=false")
+    void onStatus(ConsumerRecord<String, SectionStatusEvent> record) {
+        if (record.value() == null) {
+            statuses.remove(record.key());
+        } else {
+            statuses.put(record.key(), record.value());
+        }
+    }
+
+    /**
+     * @return true only if the section (every shard of a sharded section) is known to have no seats left
+     */
+    public boolean isSoldOut(long eventId, String section) {
+        SectionStatusEvent status = statuses.get(SectionKeys.sectionKey(eventId, section));
+        if (status == null) {
+            return false;
+        }
+        int shardCount = status.getShardCount();
+        if (shardCount <= 1) {
+            return status.getAvailableCount() == 0;
+        }
+        // The section-level entry of a sharded section is only a directory; counts live per shard
+        for (int shard = 0; shard < shardCount; shard++) {
+            SectionStatusEvent shardStatus = statuses.get(SectionKeys.storeKey(eventId, section, shard));
+            if (shardStatus == null || shardStatus.getAvailableCount() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package com.keer.ticketmaster.streaming;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry-free Avro serde for topics and changelogs that never leave the cluster.
+ *
+ * Records are written with the generated class's compiled-in schema as
+ * {@code [0x01][8-byte schema fingerprint][Avro binary]}; no schema id is looked up or registered.
+ * Encoders, decoders, datum readers/writers and the output buffer are reused per thread.
+ *
+ * Records in the Confluent wire format (magic byte 0, written before switching modes) are handed
+ * to the registry deserializer, so existing topics and changelogs stay readable. Since no registry
+ * knows the schemas, a pinned record is only readable if its writer schema is the current one or
+ * was passed in as an earlier version; when changing one of these schemas, keep the old version
+ * available to the serde until its records have left the topics and changelogs.
+ */
+public final class PinnedAvroSerde<T extends SpecificRecord> implements Serde<T> {
+
+    private static final byte FORMAT_PINNED = 1;
+    private static final byte FORMAT_CONFLUENT = 0;
+    private static final int HEADER_LENGTH = 1 + Long.BYTES;
+
+    private final Schema schema;
+    private final long fingerprint;
+    private final Deserializer<T> registryFallback;
+    private final Map<Long, Schema> writerSchemas = new HashMap<>();
+    private final ThreadLocal<Codec> codecs;
+
+    /**
+     * @param schema           the generated class's schema, used for writing and as reader schema
+     * @param registryFallback reads Confluent-framed records, or null if there are none to read
+     * @param earlierSchemas   previous versions whose pinned records may still be read
+     */
+    public PinnedAvroSerde(Schema schema, Deserializer<T> registryFallback, Schema... earlierSchemas) {
+        this.schema = schema;
+        this.fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        this.registryFallback = registryFallback;
+        writerSchemas.put(fingerprint, schema);
+        for (Schema earlier : earlierSchemas) {
+            writerSchemas.put(SchemaNormalization.parsingFingerprint64(earlier), earlier);
+        }
+        this.codecs = ThreadLocal.withInitial(Codec::new);
+    }
+
+    /**
+     * Serde for a topic or changelog that never leaves the cluster, as chosen by
+     * {@code ticketmaster.kafka.internal-serde}: a pinned serde when {@code mode} is {@code pinned}, still
+     * reading records written before the switch through {@code registrySerde}; otherwise {@code registrySerde}.
+     *
+     * @param earlierSchemas previous versions of {@code schema} whose pinned records may still be read
+     */
+    public static <T extends SpecificRecord> Serde<T> internal(String mode, Serde<T> registrySerde, Schema schema,
+                                                               Schema... earlierSchemas) {
+        if ("pinned".equals(mode)) {
+            return new PinnedAvroSerde<>(schema, registrySerde.deserializer(), earlierSchemas);
+        }
+        return registrySerde;
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return this::serialize;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return this::deserialize;
+    }
+
+    private byte[] serialize(String topic, T record) {
+        if (record == null) {
+            return null;
+        }
+        Codec codec = codecs.get();
+        codec.out.reset();
+        codec.out.write(FORMAT_PINNED);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            codec.out.write((int) (fingerprint >>> shift));
+        }
+        try {
+            codec.encoder = EncoderFactory.get().directBinaryEncoder(codec.out, codec.encoder);
+            codec.writer.write(record, codec.encoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot serialize " + schema.getFullName() + " for " + topic, e);
+        }
+        return codec.out.toByteArray();
+    }
+
+    private T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == FORMAT_CONFLUENT && registryFallback != null) {
+            return registryFallback.deserialize(topic, data);
+        }
+        if (data.length < HEADER_LENGTH || data[0] != FORMAT_PINNED) {
+            throw new SerializationException("Unknown format for " + schema.getFullName() + " on " + topic);
+        }
+        long writerFingerprint = ByteBuffer.wrap(data, 1, Long.BYTES).getLong();
+        Codec codec = codecs.get();
+        SpecificDatumReader<T> reader = writerFingerprint == fingerprint ? codec.reader : codec.readerFor(writerFingerprint);
+        if (reader == null) {
+            throw new SerializationException("%s on %s was written with an unknown schema (fingerprint %x, current %x)"
+                    .formatted(schema.getFullName(), topic, writerFingerprint, fingerprint));
+        }
+        try {
+            codec.decoder = DecoderFactory.get().binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, codec.decoder);
+            return reader.read(null, codec.decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot deserialize " + schema.getFullName() + " from " + topic, e);
+        }
+    }
+
+    private final class Codec {
+        final SpecificDatumWriter<T> writer;
+        final SpecificDatumReader<T> reader;
+        final Map<Long, SpecificDatumReader<T>> resolvingReaders = new HashMap<>();
+        // reset() keeps the grown buffer, so steady-state encoding only allocates the returned copy
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        BinaryEncoder encoder;
+        BinaryDecoder decoder;
+
+        Codec() {
+            this.writer = new SpecificDatumWriter<>(schema);
+            this.reader = new SpecificDatumReader<>(schema);
+        }
+
+        SpecificDatumReader<T> readerFor(long writerFingerprint) {
+            Schema writerSchema = writerSchemas.get(writerFingerprint);
+            if (writerSchema == null) {
+                return null;
+            }
+            return resolvingReaders.computeIfAbsent(writerFingerprint,
+                    k -> new SpecificDatumReader<>(writerSchema, schema));
+        }
+    }
+}
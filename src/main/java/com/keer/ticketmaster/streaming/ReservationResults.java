@@ -0,0 +1,79 @@
+package com.keer.ticketmaster.streaming;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.streaming.seat.SeatLabels;
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Keeps {@link ReservationCompletedEvent} readable both ways while consumers move from the v1 fields
+ * ({@code status} string, {@code allocatedSeats} labels) to the v2 ones ({@code allocationStatus},
+ * {@code seatRanges}).
+ *
+ * The seat processor only writes the v2 fields, and v1 records read back are upgraded before use. The
+ * router fills in the v1 ones as it publishes to {@code reservation-completed} only while
+ * {@code ticketmaster.reservation.legacy-result-fields} is on (off by default), so results stay compact
+ * unless a v1 consumer still needs them.
+ *
+ * The v1 fields are dropped from the schema once that property is off everywhere and no records written
+ * before v2 remain, i.e. one retention period of {@code reservation-completed} and
+ * {@code seat-allocation-results} after the last v1 consumer moved over.
+ *
+ * A status added later reads as {@code UNKNOWN} on a consumer that does not know it yet.
+ */
+public final class ReservationResults {
+
+    private static final String V1_SCHEMA_RESOURCE = "/avro/ReservationCompletedEvent-v1.avsc";
+    private static final Schema V1_SCHEMA = loadSchema(V1_SCHEMA_RESOURCE);
+
+    private ReservationResults() {}
+
+    /**
+     * The v1 writer schema, for serdes that must still read records written before v2 without a registry.
+     */
+    public static Schema v1Schema() {
+        return V1_SCHEMA;
+    }
+
+    /**
+     * Derives {@code allocationStatus} for a record written before it existed; other records are unchanged.
+     */
+    public static ReservationCompletedEvent upgrade(ReservationCompletedEvent event) {
+        if (event != null && event.getAllocationStatus() == AllocationStatus.UNKNOWN && !event.getStatus().isEmpty()) {
+            try {
+                event.setAllocationStatus(AllocationStatus.valueOf(event.getStatus()));
+            } catch (IllegalArgumentException e) {
+                // A status this version does not know stays UNKNOWN
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Fills the v1 fields of a result about to be published to {@code reservation-completed}.
+     */
+    public static ReservationCompletedEvent withLegacyFields(ReservationCompletedEvent event) {
+        if (event == null) {
+            return null;
+        }
+        upgrade(event);
+        event.setStatus(event.getAllocationStatus().name());
+        event.setAllocatedSeats(SeatLabels.of(event));
+        return event;
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = ReservationResults.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing schema resource " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schema " + resource, e);
+        }
+    }
+}
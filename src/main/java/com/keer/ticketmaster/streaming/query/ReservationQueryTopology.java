@@ -1,8 +1,10 @@
 package com.keer.ticketmaster.streaming.query;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
 import com.keer.ticketmaster.config.KafkaConstants;
 import com.keer.ticketmaster.reservation.service.ReservationPendingRequests;
+import com.keer.ticketmaster.streaming.ReservationResults;
 import com.keer.ticketmaster.ticket.service.TicketService;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
 import org.apache.kafka.common.serialization.Serdes;
@@ -45,9 +47,11 @@ public class ReservationQueryTopology {
         completedSerde.configure(serdeConfig, false);
 
         // --- KTable: reservation-completed -> query store + foreach ---
+        // Results written before allocationStatus existed are upgraded on the way in
         KTable<String, ReservationCompletedEvent> table = builder.stream(
                         KafkaConstants.TOPIC_RESERVATION_COMPLETED,
                         Consumed.with(Serdes.String(), completedSerde))
+                .mapValues(ReservationResults::upgrade)
                 .toTable(
                         Materialized.<String, ReservationCompletedEvent, KeyValueStore<Bytes, byte[]>>as(KafkaConstants.RESERVATION_QUERY_STORE)
                                 .withKeySerde(Serdes.String())
@@ -57,7 +61,8 @@ public class ReservationQueryTopology {
         table.toStream().foreach((reservationId, event) -> {
             pendingRequests.resolve(event);
 
-            if ("CONFIRMED".equalsIgnoreCase(event.getStatus())) {
+            // Holds, their expiry and confirmations all change what is available
+            if (event.getAllocationStatus() != AllocationStatus.REJECTED) {
                 ticketService.evictAvailableTicketsCache(event.getEventId());
             }
         });
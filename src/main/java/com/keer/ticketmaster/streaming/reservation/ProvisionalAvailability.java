@@ -0,0 +1,84 @@
+package com.keer.ticketmaster.streaming.reservation;
+
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The router's own running count of a section's (or shard's) available seats.
+ *
+ * The section-status snapshot lags the seat processor, so near sell-out every command checked
+ * against it would pass. Instead the count is taken from the snapshot and then lowered by each
+ * command let through, until a newer {@link SectionStatusEvent} arrives to re-sync it. Admitted
+ * commands the seat processor turns down leave the count low without changing the snapshot,
+ * so it is also re-synced once it is {@code maxAgeMs} old; 0 always uses the snapshot as is.
+ *
+ * Kept per stream task, and commands are spread over {@code shares} tasks (the partitions of
+ * {@code reservation-commands}), so two counts are kept: {@link #available} is this task's share of
+ * the snapshot, rounded up, and {@link #unclaimed} the whole snapshot; both less what this task let
+ * through since the last re-sync, and never below 0. The share is what a task should stay within;
+ * since other tasks may leave theirs unused, only a command {@link #unclaimed} cannot cover is
+ * certain not to fit.
+ */
+final class ProvisionalAvailability {
+
+    private final long maxAgeMs;
+    private final int shares;
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    ProvisionalAvailability(long maxAgeMs, int shares) {
+        this.maxAgeMs = maxAgeMs;
+        this.shares = Math.max(shares, 1);
+    }
+
+    /**
+     * @return the seats of this task's share still available at {@code key}
+     */
+    int available(String key, SectionStatusEvent status, long now) {
+        Counter counter = sync(key, status, now);
+        return Math.max(0, counter.share - counter.admitted);
+    }
+
+    /**
+     * @return the seats of the whole snapshot not yet taken by commands this task let through
+     */
+    int unclaimed(String key, SectionStatusEvent status, long now) {
+        Counter counter = sync(key, status, now);
+        return Math.max(0, counter.snapshot - counter.admitted);
+    }
+
+    /**
+     * Takes a command's seats off the counts read through {@link #available} and {@link #unclaimed}.
+     */
+    void admitted(String key, int seatCount) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.admitted += seatCount;
+        }
+    }
+
+    private Counter sync(String key, SectionStatusEvent status, long now) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = new Counter();
+            counters.put(key, counter);
+        } else if (counter.statusTimestamp == status.getTimestamp() && now - counter.syncedAt < maxAgeMs) {
+            return counter;
+        }
+        counter.statusTimestamp = status.getTimestamp();
+        counter.syncedAt = now;
+        counter.snapshot = status.getAvailableCount();
+        counter.share = Math.ceilDiv(counter.snapshot, shares);
+        counter.admitted = 0;
+        return counter;
+    }
+
+    private static final class Counter {
+        long statusTimestamp;
+        long syncedAt;
+        int snapshot;
+        int share;
+        int admitted;
+    }
+}
@@ -0,0 +1,34 @@
+package com.keer.ticketmaster.streaming.reservation;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.kafka.streams.processor.StreamPartitioner;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sends a record keyed by reservation id to the partition embedded in the id
+ * ({@link ReservationIds}). Ids without one, or whose partition the topic does not have,
+ * fall back to the default key-hash partitioning.
+ *
+ * Used for every write to {@code reservation-completed} and for key metadata lookups on the
+ * query store, so the two always agree.
+ */
+public class ReservationIdPartitioner implements StreamPartitioner<String, Object> {
+
+    @Override
+    public Optional<Set<Integer>> partitions(String topic, String reservationId, Object value, int numPartitions) {
+        return Optional.of(Set.of(partition(topic, reservationId, numPartitions)));
+    }
+
+    public int partition(String topic, String reservationId, int numPartitions) {
+        int partition = ReservationIds.partitionOf(reservationId);
+        if (partition >= 0 && partition < numPartitions) {
+            return partition;
+        }
+        // Same murmur2 hash as the producer's default partitioner
+        byte[] keyBytes = Serdes.String().serializer().serialize(topic, reservationId);
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+    }
+}
@@ -0,0 +1,62 @@
+package com.keer.ticketmaster.streaming.reservation;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Reservation ids that carry their {@code reservation-completed} partition.
+ *
+ * Format: two hex digits of partition followed by 16 base64url characters (96 random bits),
+ * e.g. {@code 1fq3Vd0aK9xPz2LwQb}. Whoever holds an id knows which partition, and so which
+ * Streams task and host, has its result without asking Kafka Streams for key metadata.
+ *
+ * An id is all it takes to read a reservation, so the random part is unguessable: it comes from a
+ * DRBG {@link SecureRandom}, seeded from system entropy once, rather than a fast but predictable
+ * generator. DRBG is thread-safe, so every request thread (virtual ones included) shares the one
+ * instance instead of seeding its own.
+ *
+ * Ids in any other format (UUIDs issued before this format) have no embedded partition and are
+ * partitioned by key hash as before.
+ */
+public final class ReservationIds {
+
+    public static final int MAX_PARTITIONS = 256;
+    private static final int LENGTH = 18;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom RANDOM = newRandom();
+
+    private ReservationIds() {}
+
+    public static String generate(int partition) {
+        if (partition < 0 || partition >= MAX_PARTITIONS) {
+            throw new IllegalArgumentException("Partition out of range: " + partition);
+        }
+        byte[] random = new byte[12];
+        RANDOM.nextBytes(random);
+        return "%02x".formatted(partition) + ENCODER.encodeToString(random);
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * @return the embedded partition, or -1 if the id has none
+     */
+    public static int partitionOf(String reservationId) {
+        if (reservationId == null || reservationId.length() != LENGTH) {
+            return -1;
+        }
+        int high = Character.digit(reservationId.charAt(0), 16);
+        int low = Character.digit(reservationId.charAt(1), 16);
+        if (high < 0 || low < 0) {
+            return -1;
+        }
+        return (high << 4) | low;
+    }
+}
@@ -1,23 +1,34 @@
 package com.keer.ticketmaster.streaming.reservation;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
 import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCommandBatch;
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
 import com.keer.ticketmaster.avro.SectionStatusEvent;
 import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.streaming.PinnedAvroSerde;
+import com.keer.ticketmaster.streaming.ReservationResults;
+import com.keer.ticketmaster.streaming.seat.SectionKeys;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
 import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,13 +36,22 @@ import java.util.Map;
  *
  * Consumes:
  *   - reservation-commands      (key=reservationId) → pre-filter + re-key
- *   - seat-allocation-results   (key=reservationId) → forward to reservation-completed
+ *   - reservation-command-batches (key=eventId-section) → opened into its commands, then as above
+ *   - seat-allocation-results   (key=reservationId) → forward to reservation-completed (v1 fields filled in while
+ *                                 ticketmaster.reservation.legacy-result-fields is on)
  *
  * Produces:
- *   - reservation-completed        (key=reservationId) — REJECTED (pre-filter) or forwarded result
- *   - seat-allocation-requests     (key=eventId-section) — passed-through commands
+ *   - reservation-completed        (key=reservationId, on the partition embedded in the id) — REJECTED (pre-filter) or forwarded result
+ *   - seat-allocation-requests     (key=eventId-section[#shard]) — passed-through commands
  *
  * State store: section-status-store (GlobalKTable, read-only)
+ *
+ * Commands for a sharded section (its section-level status carries shardCount > 1) go to a shard
+ * picked by reservationId, spilling over to the next shards when that one has too few seats left.
+ * Each admitted command is counted against its task's share of its section (or shard) until the next
+ * status arrives, so shards are picked to keep each task within its share. A command is only rejected
+ * here once the whole section status, less what this task already let through, cannot seat it; past
+ * the share it is forwarded and the seat processor has the final say.
  */
 @Configuration
 @Profile({"reservation-processor", "default"})
@@ -40,17 +60,42 @@ public class ReservationRouterTopology {
     @Value("${spring.kafka.streams.properties[schema.registry.url]}")
     private String schemaRegistryUrl;
 
+    @Value("${ticketmaster.kafka.internal-serde:registry}")
+    private String internalSerde;
+
+    @Value("${ticketmaster.reservation.provisional.max-age-ms:1000}")
+    private long provisionalMaxAgeMs;
+
+    // Fill the v1 status/allocatedSeats fields on reservation-completed while v1 consumers migrate
+    @Value("${ticketmaster.reservation.legacy-result-fields:false}")
+    private boolean legacyResultFields;
+
+    // Partitions of reservation-commands, i.e. how many router tasks share each section's seats
+    @Value("${ticketmaster.kafka.partitions:32}")
+    private int commandPartitions;
+
     @Autowired
     public void reservationPipeline(StreamsBuilder builder) {
 
         Map<String, String> serdeConfig = Map.of("schema.registry.url", schemaRegistryUrl);
 
         SpecificAvroSerde<ReservationCommand> commandSerde = newAvroSerde(serdeConfig);
+        SpecificAvroSerde<ReservationCommandBatch> batchSerde = newAvroSerde(serdeConfig);
         SpecificAvroSerde<ReservationCompletedEvent> completedSerde = newAvroSerde(serdeConfig);
         SpecificAvroSerde<SectionStatusEvent> statusSerde = newAvroSerde(serdeConfig);
+        // seat-allocation-requests/-results never leave the cluster
+        Serde<ReservationCommand> allocationRequestSerde = PinnedAvroSerde.internal(
+                internalSerde, newAvroSerde(serdeConfig), ReservationCommand.getClassSchema());
+        Serde<ReservationCompletedEvent> allocationResultSerde = PinnedAvroSerde.internal(
+                internalSerde, newAvroSerde(serdeConfig), ReservationCompletedEvent.getClassSchema(),
+                ReservationResults.v1Schema());
+
+        ValueMapper<ReservationCompletedEvent, ReservationCompletedEvent> toCompleted = legacyResultFields
+                ? ReservationResults::withLegacyFields
+                : ReservationResults::upgrade;
 
-        // --- GlobalKTable: section-status for pre-filtering ---
-        GlobalKTable<String, SectionStatusEvent> sectionStatus = builder.globalTable(
+        // --- GlobalKTable: section-status for pre-filtering and shard selection ---
+        builder.globalTable(
                 KafkaConstants.TOPIC_SECTION_STATUS,
                 Consumed.with(Serdes.String(), statusSerde),
                 Materialized.<String, SectionStatusEvent, KeyValueStore<Bytes, byte[]>>as(KafkaConstants.SECTION_STATUS_STORE)
@@ -58,48 +103,144 @@ public class ReservationRouterTopology {
                         .withValueSerde(statusSerde)
         );
 
-        // --- Stream reservation-commands (key = reservationId) ---
+        // --- Stream reservation-commands (key = reservationId), plus the commands of envelopes
+        //     (key = eventId-section/instance) opened back up so both take the same path ---
+        KStream<String, ReservationCommand> batched = builder.stream(
+                        KafkaConstants.TOPIC_RESERVATION_COMMAND_BATCHES,
+                        Consumed.with(Serdes.String(), batchSerde))
+                .flatMap((sectionKey, batch) -> batch.getCommands().stream()
+                        .map(command -> KeyValue.pair(command.getReservationId(), command))
+                        .toList());
         KStream<String, ReservationCommand> commands = builder.stream(
                 KafkaConstants.TOPIC_RESERVATION_COMMANDS,
                 Consumed.with(Serdes.String(), commandSerde)
-        );
+        ).merge(batched);
 
-        // Left join with GlobalKTable to check seat availability
-        KStream<String, CommandWithStatus> joined = commands.leftJoin(
-                sectionStatus,
-                (key, cmd) -> cmd.getEventId() + "-" + cmd.getSection(),
-                CommandWithStatus::new
-        );
+        // Look up seat availability (of the chosen shard, for sharded sections) in the GlobalKTable
+        KStream<String, Admission> joined = commands.processValues(() -> new ShardSelector(provisionalMaxAgeMs, commandPartitions));
 
         // Split into rejected (not enough seats) and accepted (pass to seat processor)
         var branches = joined.split(Named.as("prefilter"))
-                .branch((key, cws) -> !cws.hasEnoughSeats(), Branched.as("-rejected"))
+                .branch((key, admission) -> !admission.hasEnoughSeats(), Branched.as("-rejected"))
                 .defaultBranch(Branched.as("-accepted"));
 
         // Rejected: build REJECTED event -> reservation-completed
         branches.get("prefilter-rejected")
-                .mapValues(CommandWithStatus::toRejectedEvent)
-                .to(KafkaConstants.TOPIC_RESERVATION_COMPLETED, Produced.with(Serdes.String(), completedSerde));
+                .mapValues(Admission::toRejectedEvent)
+                .mapValues(toCompleted)
+                .to(KafkaConstants.TOPIC_RESERVATION_COMPLETED, Produced.with(Serdes.String(), completedSerde)
+                        .withStreamPartitioner(new ReservationIdPartitioner()));
 
         // Accepted: re-key to eventId-section -> seat-allocation-requests
         branches.get("prefilter-accepted")
-                .map((key, cws) -> KeyValue.pair(
-                        cws.command().getEventId() + "-" + cws.command().getSection(),
-                        cws.command()))
-                .to(KafkaConstants.TOPIC_SEAT_ALLOCATION_REQUESTS, Produced.with(Serdes.String(), commandSerde));
+                .map((key, admission) -> KeyValue.pair(
+                        SectionKeys.storeKey(admission.command().getEventId(), admission.command().getSection(),
+                                admission.command().getShard()),
+                        admission.command()))
+                .to(KafkaConstants.TOPIC_SEAT_ALLOCATION_REQUESTS, Produced.with(Serdes.String(), allocationRequestSerde));
 
-        // --- Forward seat-allocation-results -> reservation-completed ---
+        // --- Forward seat-allocation-results -> reservation-completed (v1 fields only while legacy-result-fields is on) ---
         builder.stream(KafkaConstants.TOPIC_SEAT_ALLOCATION_RESULTS,
-                        Consumed.with(Serdes.String(), completedSerde))
-                .to(KafkaConstants.TOPIC_RESERVATION_COMPLETED, Produced.with(Serdes.String(), completedSerde));
+                        Consumed.with(Serdes.String(), allocationResultSerde))
+                .mapValues(toCompleted)
+                .to(KafkaConstants.TOPIC_RESERVATION_COMPLETED, Produced.with(Serdes.String(), completedSerde)
+                        .withStreamPartitioner(new ReservationIdPartitioner()));
 
     }
 
-    private record CommandWithStatus(ReservationCommand command, SectionStatusEvent status) {
-        boolean hasEnoughSeats() {
-            return status == null || status.getAvailableCount() >= command.getSeatCount();
+    /**
+     * A GlobalKTable left join that also picks the shard: reads the section-level status and, for a sharded
+     * section, assigns the command to the first shard from its preferred one with room for the group in this
+     * task's share, else the first whose status can still seat it. If none can, the command stays on its
+     * preferred shard and is pre-filtered as REJECTED.
+     *
+     * Seat counts are read through {@link ProvisionalAvailability}, so commands already let through count
+     * against the section before the seat processor's next status catches up.
+     */
+    private static final class ShardSelector
+            implements FixedKeyProcessor<String, ReservationCommand, Admission> {
+
+        private final ProvisionalAvailability provisional;
+        private FixedKeyProcessorContext<String, Admission> context;
+        private TimestampedKeyValueStore<String, SectionStatusEvent> statusStore;
+
+        ShardSelector(long provisionalMaxAgeMs, int commandPartitions) {
+            this.provisional = new ProvisionalAvailability(provisionalMaxAgeMs, commandPartitions);
+        }
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, Admission> context) {
+            this.context = context;
+            this.statusStore = context.getStateStore(KafkaConstants.SECTION_STATUS_STORE);
         }
 
+        @Override
+        public void process(FixedKeyRecord<String, ReservationCommand> record) {
+            ReservationCommand command = record.value();
+            String key = SectionKeys.sectionKey(command.getEventId(), command.getSection());
+            SectionStatusEvent status = statusOf(key);
+
+            if (status != null && status.getShardCount() > 1) {
+                int shardCount = status.getShardCount();
+                int preferred = Math.floorMod(command.getReservationId().hashCode(), shardCount);
+                int shard = firstShard(command, preferred, shardCount, this::fitsShare);
+                if (shard < 0) {
+                    shard = firstShard(command, preferred, shardCount, this::fitsSnapshot);
+                }
+                command.setShard(shard < 0 ? preferred : shard);
+                key = shardKey(command, command.getShard());
+                status = statusOf(key);
+            }
+
+            boolean admitted = fitsShare(command, key, status) || fitsSnapshot(command, key, status);
+            if (admitted && status != null) {
+                provisional.admitted(key, command.getSeatCount());
+            }
+            context.forward(record.withValue(new Admission(command, admitted)));
+        }
+
+        /**
+         * @return the first shard from {@code preferred} on that {@code fits} the command, or -1
+         */
+        private int firstShard(ReservationCommand command, int preferred, int shardCount, Fit fits) {
+            for (int i = 0; i < shardCount; i++) {
+                int shard = (preferred + i) % shardCount;
+                String key = shardKey(command, shard);
+                if (fits.test(command, key, statusOf(key))) {
+                    return shard;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Sections without a status yet are let through; the seat processor has the final say.
+         */
+        private boolean fitsShare(ReservationCommand command, String key, SectionStatusEvent status) {
+            return status == null
+                    || provisional.available(key, status, context.currentSystemTimeMs()) >= command.getSeatCount();
+        }
+
+        private boolean fitsSnapshot(ReservationCommand command, String key, SectionStatusEvent status) {
+            return status == null
+                    || provisional.unclaimed(key, status, context.currentSystemTimeMs()) >= command.getSeatCount();
+        }
+
+        @FunctionalInterface
+        private interface Fit {
+            boolean test(ReservationCommand command, String key, SectionStatusEvent status);
+        }
+
+        private static String shardKey(ReservationCommand command, int shard) {
+            return SectionKeys.storeKey(command.getEventId(), command.getSection(), shard);
+        }
+
+        private SectionStatusEvent statusOf(String key) {
+            return ValueAndTimestamp.getValueOrNull(statusStore.get(key));
+        }
+    }
+
+    private record Admission(ReservationCommand command, boolean hasEnoughSeats) {
         ReservationCompletedEvent toRejectedEvent() {
             return ReservationCompletedEvent.newBuilder()
                     .setReservationId(command.getReservationId())
@@ -107,14 +248,13 @@ public class ReservationRouterTopology {
                     .setSection(command.getSection())
                     .setSeatCount(command.getSeatCount())
                     .setUserId(command.getUserId())
-                    .setStatus("REJECTED")
-                    .setAllocatedSeats(List.of())
+                    .setAllocationStatus(AllocationStatus.REJECTED)
                     .setTimestamp(Instant.now().toEpochMilli())
                     .build();
         }
     }
 
-    private static <T extends org.apache.avro.specific.SpecificRecord> SpecificAvroSerde<T> newAvroSerde(
+    private static <T extends SpecificRecord> SpecificAvroSerde<T> newAvroSerde(
             Map<String, String> serdeConfig) {
         SpecificAvroSerde<T> serde = new SpecificAvroSerde<>();
         serde.configure(serdeConfig, false);
@@ -0,0 +1,82 @@
+package com.keer.ticketmaster.streaming.seat;
+
+/**
+ * Bloom filter over the reservation ids a task has allocated within the reservation store's
+ * retention, so a command is only looked up in {@code seat-reservation-window-store} when it might
+ * replay an allocation. No false negatives; around 1% false positives while within capacity, each
+ * costing just the store read the filter otherwise saves.
+ *
+ * Ids are never removed: the owner rebuilds it from the store, at a larger capacity, once it holds
+ * as many ids as it was sized for, which also forgets ids that have left the retention.
+ */
+final class AllocatedReservations {
+
+    static final int MIN_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final int BITS_PER_ID = 10;
+    private static final int HASHES = 7;
+
+    private final int capacity;
+    private final long[] words;
+    private final int mask;
+    private int size;
+
+    AllocatedReservations(int capacity) {
+        this.capacity = Math.clamp(capacity, MIN_CAPACITY, MAX_CAPACITY);
+        int bits = Integer.highestOneBit(this.capacity * BITS_PER_ID * 2 - 1);
+        this.words = new long[bits >>> 6];
+        this.mask = bits - 1;
+    }
+
+    void add(String reservationId) {
+        long hash = hash(reservationId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            words[bit >>> 6] |= 1L << bit;
+        }
+        size++;
+    }
+
+    boolean mightContain(String reservationId) {
+        long hash = hash(reservationId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true once more ids were added than it was sized for; false positives grow from here on
+     */
+    boolean isFull() {
+        return size > capacity && capacity < MAX_CAPACITY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * FNV-1a over the characters, then MurmurHash3's finalizer so both halves are well mixed.
+     */
+    private static long hash(String reservationId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < reservationId.length(); i++) {
+            h ^= reservationId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,64 @@
+package com.keer.ticketmaster.streaming.seat;
+
+/**
+ * Max segment tree over rows, keyed by the longest run of free seats in each row.
+ *
+ * Finding the first row that can seat a group of N is a single root-to-leaf descent,
+ * and a row update only touches its ancestors, so both are O(log rows).
+ */
+final class FreeRunIndex {
+
+    private final int rows;
+    private final int leaves;
+    private final int[] tree;
+
+    FreeRunIndex(int rows) {
+        this.rows = rows;
+        this.leaves = Integer.highestOneBit(Math.max(rows, 1) * 2 - 1);
+        this.tree = new int[leaves * 2];
+    }
+
+    void update(int row, int longestRun) {
+        int node = leaves + row;
+        tree[node] = longestRun;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            tree[node] = Math.max(tree[node << 1], tree[(node << 1) | 1]);
+        }
+    }
+
+    int longestRun() {
+        return tree[1];
+    }
+
+    int longestRun(int row) {
+        return tree[leaves + row];
+    }
+
+    /**
+     * @return the first row at or after {@code fromRow} with a free run of at least {@code count}, or -1
+     */
+    int nextRow(int fromRow, int count) {
+        if (fromRow >= rows || tree[1] < count) {
+            return -1;
+        }
+        int node = leaves + fromRow;
+        if (tree[node] >= count) {
+            return fromRow;
+        }
+        // Climb until a right sibling covers a qualifying row, then descend to its leftmost one
+        while (node > 1) {
+            if ((node & 1) == 0 && tree[node | 1] >= count) {
+                node |= 1;
+                break;
+            }
+            node >>>= 1;
+        }
+        if (node == 1) {
+            return -1;
+        }
+        while (node < leaves) {
+            node = tree[node << 1] >= count ? node << 1 : (node << 1) | 1;
+        }
+        return node - leaves;
+    }
+}
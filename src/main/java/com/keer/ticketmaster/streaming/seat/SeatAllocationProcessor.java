@@ -1,146 +1,495 @@
 package com.keer.ticketmaster.streaming.seat;
 
-import com.keer.ticketmaster.avro.SectionSeatState;
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.CancelReservationCommand;
+import com.keer.ticketmaster.avro.HoldConfirmCommand;
 import com.keer.ticketmaster.avro.ReservationCommand;
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.avro.SectionStatusEvent;
 import com.keer.ticketmaster.config.KafkaConstants;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
 import org.apache.kafka.streams.processor.api.Processor;
 import org.apache.kafka.streams.processor.api.ProcessorContext;
 import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Allocates seats for reservation commands against the section's live seat map.
+ *
+ * Forwards a {@link ReservationCompletedEvent} per command (key=reservationId) and, whenever the
+ * section's available count changed, a {@link SectionStatusEvent} taken from the same in-hand
+ * section (key=eventId-section[#shard]); the topology routes each type to its topic.
+ *
+ * A command the section cannot seat by {@link SeatInventoryStore#mayFit}, i.e. once it is sold out or
+ * its longest free run is shorter, is rejected as it arrives, ahead of any batch pending for the section:
+ * it is not buffered and no store is read. It could still replay an allocation made before the section
+ * filled up, so its id is checked against {@link AllocatedReservations}, an in-memory filter of the ids
+ * this task allocated, and only a possible hit reads its reservation entry.
+ *
+ * With a status interval, changed sections are only marked and published at most once per interval
+ * (wall-clock punctuation) with their count at that moment, which keeps section-status and every
+ * router's GlobalKTable quiet during a sale. Selling out is always published at once so routers stop
+ * forwarding to the section immediately. A mark lost with the task only leaves routers optimistic
+ * until the next change; the seat state stays authoritative.
+ *
+ * With a batch size above 1, commands are buffered per section and allocated together once the
+ * batch is full or the batch window elapses (wall-clock punctuation), touching the section once
+ * per batch; results are still forwarded one per command, in arrival order.
+ *
+ * Buffered commands are also written to the changelogged {@code seat-allocation-buffer-store}:
+ * Streams may commit their input offsets before the batch is drained, and the buffer is what a
+ * restarted or migrated task resumes from. The store is cached, so a command buffered and drained
+ * within one commit interval reaches the changelog as a single tombstone rather than a put and a
+ * delete. Without batching the buffer is never touched.
+ *
+ * With a hold TTL, allocated seats are only HELD until {@code holdExpiresAt}: each hold is indexed
+ * in {@code seat-hold-store} under {@code deadline/storeKey/reservationId}, so keys sort by deadline
+ * and the sweep (wall-clock punctuation) reads just the expired prefix, O(expired) however many holds
+ * are open. An expired hold's seats go back to the section and an EXPIRED result is forwarded; a
+ * {@link HoldConfirmCommand} arriving before the deadline removes the hold and forwards CONFIRMED.
+ * Without a TTL every allocation is CONFIRMED straight away, as before.
+ *
+ * Every allocation is kept in {@code seat-reservation-window-store} by reservation id, at the time it
+ * was allocated, with its latest status. A {@link CancelReservationCommand} releases the seats of a live
+ * (HELD or CONFIRMED) entry and forwards CANCELLED; the entry is marked, as on expiry, so a repeated or
+ * late cancel can never free seats that have been handed out again. The store is a window store so
+ * entries older than its retention are dropped a segment at a time: it stays bounded however many
+ * events are sold, and an allocation can only be cancelled within the retention.
+ *
+ * The same entry answers a reservation command seen again (an API resend, or input replayed after a
+ * crash under at-least-once): it gets the live allocation back, or nothing if the allocation has since
+ * ended, instead of a second allocation. The filter of allocated ids is rebuilt from the store whenever
+ * the task starts (and when it outgrows its size), so only commands it may have seen pay the lookup. Since the entry is written in the same step as the seats and
+ * flushed in the same commit, there is no separate record that could survive a crash without them.
+ * Two limits remain. Rejections are not recorded, so a rejected command seen again is simply tried
+ * again. And under at-least-once, a crash part way through a commit's changelog writes can keep the
+ * seat change but lose the entry (or the other way round), as for any two stores; only
+ * {@code exactly_once_v2} makes them atomic. Confirmations and cancellations are idempotent on their own.
+ */
 public class SeatAllocationProcessor
-        implements Processor<String, ReservationCommand, String, ReservationCompletedEvent> {
+        implements Processor<String, SpecificRecord, String, SpecificRecord> {
 
-    private ProcessorContext<String, ReservationCompletedEvent> context;
-    private KeyValueStore<String, SectionSeatState> seatStore;
+    static final Duration HOLD_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final Map<String, List<Record<String, ReservationCommand>>> pending = new LinkedHashMap<>();
+    private final Map<String, List<String>> pendingBufferKeys = new LinkedHashMap<>();
+    private final Duration statusInterval;
+    private final Set<String> pendingStatus = new LinkedHashSet<>();
+    private final Duration holdTtl;
+    private final Duration reservationRetention;
+
+    private ProcessorContext<String, SpecificRecord> context;
+    private SeatInventoryStore seatStore;
+    private KeyValueStore<String, ReservationCommand> bufferStore;
+    private KeyValueStore<String, ReservationCompletedEvent> holdStore;
+    private WindowStore<String, ReservationCompletedEvent> reservationStore;
+    private AllocatedReservations allocatedIds;
+    private long nextSequence;
+
+    /**
+     * @param statusInterval minimum time between status events of a section; zero publishes every change
+     * @param holdTtl how long allocated seats are held for confirmation; zero confirms them at once
+     * @param reservationRetention retention of {@code seat-reservation-window-store}; older allocations are ignored
+     */
+    public SeatAllocationProcessor(int batchSize, Duration batchWindow, Duration statusInterval, Duration holdTtl,
+                                   Duration reservationRetention) {
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+        this.statusInterval = statusInterval;
+        this.holdTtl = holdTtl;
+        this.reservationRetention = reservationRetention;
+    }
 
     @Override
-    public void init(ProcessorContext<String, ReservationCompletedEvent> context) {
+    public void init(ProcessorContext<String, SpecificRecord> context) {
         this.context = context;
         this.seatStore = context.getStateStore(KafkaConstants.SEAT_INVENTORY_STORE);
+        this.seatStore.invalidate();
+        this.bufferStore = context.getStateStore(KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE);
+        this.holdStore = context.getStateStore(KafkaConstants.SEAT_HOLD_STORE);
+        this.reservationStore = context.getStateStore(KafkaConstants.SEAT_RESERVATION_STORE);
+
+        rebuildAllocatedIds(AllocatedReservations.MIN_CAPACITY);
+        restorePending();
+        // Leftovers from a previous (possibly batched) run are drained even if batching is now off
+        if (batchSize > 1 || !pending.isEmpty()) {
+            context.schedule(batchWindow, PunctuationType.WALL_CLOCK_TIME, timestamp -> drainAll());
+        }
+        pendingStatus.clear();
+        if (!statusInterval.isZero()) {
+            context.schedule(statusInterval, PunctuationType.WALL_CLOCK_TIME, this::publishPendingStatus);
+        }
+        // Also without a TTL: holds taken before it was switched off still expire
+        context.schedule(HOLD_SWEEP_INTERVAL, PunctuationType.WALL_CLOCK_TIME, this::expireHolds);
     }
 
     @Override
-    public void process(Record<String, ReservationCommand> record) {
-        ReservationCommand command = record.value();
-        String reservationId = command.getReservationId();
-        long eventId = command.getEventId();
-        String section = command.getSection();
-        int seatCount = command.getSeatCount();
-        String userId = command.getUserId();
-
-        String storeKey = eventId + "-" + section;
-        SectionSeatState sectionState = seatStore.get(storeKey);
-
-        // Fast fail: no section data or not enough available seats
-        if (sectionState == null || sectionState.getAvailableCount() < seatCount) {
-            ReservationCompletedEvent result = ReservationCompletedEvent.newBuilder()
-                    .setReservationId(reservationId)
-                    .setEventId(eventId)
-                    .setUserId(userId)
-                    .setStatus("REJECTED")
-                    .setSection(section)
-                    .setSeatCount(seatCount)
-                    .setAllocatedSeats(List.of())
-                    .setTimestamp(Instant.now().toEpochMilli())
-                    .build();
-            context.forward(new Record<>(reservationId, result, record.timestamp()));
+    public void process(Record<String, SpecificRecord> record) {
+        if (record.value() instanceof HoldConfirmCommand confirm) {
+            confirmHold(confirm, record.timestamp());
             return;
         }
+        if (record.value() instanceof CancelReservationCommand cancel) {
+            cancel(cancel, record.timestamp());
+            return;
+        }
+        ReservationCommand command = (ReservationCommand) record.value();
+        String storeKey = SectionKeys.storeKey(command.getEventId(), command.getSection(), command.getShard());
 
-        // Collect available seats from the map
-        Map<String, String> seatStatuses = sectionState.getSeatStatuses();
-        List<String> availableSeats = new ArrayList<>();
-        for (Map.Entry<String, String> entry : seatStatuses.entrySet()) {
-            if ("AVAILABLE".equals(entry.getValue())) {
-                availableSeats.add(entry.getKey());
+        // Cannot be seated: rejected from memory, before buffering or reading any store, unless it may replay
+        // an allocation
+        if (!seatStore.mayFit(storeKey, command.getSeatCount())) {
+            if (!replayed(command, record.timestamp())) {
+                context.forward(new Record<>(command.getReservationId(), result(command, null, 0, 0), record.timestamp()));
             }
+            return;
         }
 
-        availableSeats.sort(Comparator.comparing(this::extractSeatNumber));
+        if (batchSize <= 1 && pending.isEmpty()) {
+            allocate(storeKey, List.of(record.withValue(command)));
+            return;
+        }
+
+        String bufferKey = storeKey + "/" + sortableHex(nextSequence++);
+        bufferStore.put(bufferKey, command);
+        List<Record<String, ReservationCommand>> batch = buffer(storeKey, bufferKey, record.withValue(command));
 
-        List<String> allocatedSeats = findConsecutiveSeats(availableSeats, seatCount);
+        if (batch.size() >= batchSize) {
+            drain(storeKey);
+        }
+    }
 
-        ReservationCompletedEvent result;
-        if (allocatedSeats != null && allocatedSeats.size() == seatCount) {
-            for (String seatNumber : allocatedSeats) {
-                seatStatuses.put(seatNumber, "RESERVED");
+    private List<Record<String, ReservationCommand>> buffer(String storeKey, String bufferKey,
+                                                            Record<String, ReservationCommand> record) {
+        pendingBufferKeys.computeIfAbsent(storeKey, k -> new ArrayList<>()).add(bufferKey);
+        List<Record<String, ReservationCommand>> batch = pending.computeIfAbsent(storeKey, k -> new ArrayList<>());
+        batch.add(record);
+        return batch;
+    }
+
+    private void drainAll() {
+        for (String storeKey : List.copyOf(pending.keySet())) {
+            drain(storeKey);
+        }
+    }
+
+    private void drain(String storeKey) {
+        List<Record<String, ReservationCommand>> batch = pending.remove(storeKey);
+        if (batch == null) {
+            return;
+        }
+        allocate(storeKey, batch);
+        for (String bufferKey : pendingBufferKeys.remove(storeKey)) {
+            bufferStore.delete(bufferKey);
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory batches from the buffer store. Keys sort by section, then sequence,
+     * so each section's commands come back in arrival order.
+     */
+    private void restorePending() {
+        pending.clear();
+        pendingBufferKeys.clear();
+        nextSequence = 0;
+        try (KeyValueIterator<String, ReservationCommand> it = bufferStore.all()) {
+            while (it.hasNext()) {
+                KeyValue<String, ReservationCommand> entry = it.next();
+                int separator = entry.key.lastIndexOf('/');
+                String storeKey = entry.key.substring(0, separator);
+                nextSequence = Math.max(nextSequence, Long.parseUnsignedLong(entry.key.substring(separator + 1), 16) + 1);
+                buffer(storeKey, entry.key, new Record<>(storeKey, entry.value, entry.value.getTimestamp()));
             }
-            sectionState.setAvailableCount(sectionState.getAvailableCount() - seatCount);
-            seatStore.put(storeKey, sectionState);
-
-            result = ReservationCompletedEvent.newBuilder()
-                    .setReservationId(reservationId)
-                    .setEventId(eventId)
-                    .setUserId(userId)
-                    .setStatus("CONFIRMED")
-                    .setSection(section)
-                    .setSeatCount(seatCount)
-                    .setAllocatedSeats(allocatedSeats)
-                    .setTimestamp(Instant.now().toEpochMilli())
-                    .build();
-        } else {
-            result = ReservationCompletedEvent.newBuilder()
-                    .setReservationId(reservationId)
-                    .setEventId(eventId)
-                    .setUserId(userId)
-                    .setStatus("REJECTED")
-                    .setSection(section)
-                    .setSeatCount(seatCount)
-                    .setAllocatedSeats(List.of())
-                    .setTimestamp(Instant.now().toEpochMilli())
-                    .build();
         }
+    }
 
-        context.forward(new Record<>(reservationId, result, record.timestamp()));
+    private void allocate(String storeKey, List<Record<String, ReservationCommand>> batch) {
+        SectionSeatMap seats = null;
+        boolean loaded = false;
+        boolean changed = false;
+        long lastTimestamp = 0;
+        long allocatedAt = context.currentSystemTimeMs();
+        long holdExpiresAt = holdTtl.isZero() ? 0 : allocatedAt + holdTtl.toMillis();
+
+        for (Record<String, ReservationCommand> record : batch) {
+            ReservationCommand command = record.value();
+            if (replayed(command, record.timestamp())) {
+                continue;
+            }
+            int seatCount = command.getSeatCount();
+
+            SeatRange allocated = null;
+            // Fast fail: known not to fit (in-memory capacity, no read), no section data or not enough seats
+            if (seatStore.mayFit(storeKey, seatCount)) {
+                if (!loaded) {
+                    seats = seatStore.get(storeKey);
+                    loaded = true;
+                }
+                if (seats != null && seats.getAvailableCount() >= seatCount) {
+                    int firstSeat = seats.findConsecutive(seatCount);
+                    if (firstSeat >= 0) {
+                        allocated = seats.reserve(firstSeat, seatCount);
+                        changed = true;
+                    }
+                }
+            }
+
+            ReservationCompletedEvent result = allocated == null
+                    ? result(command, null, 0, 0)
+                    : result(command, allocated, seats.getSeatsPerRow(), holdExpiresAt);
+            if (allocated != null) {
+                reservationStore.put(command.getReservationId(), result, allocatedAt);
+                rememberAllocated(command.getReservationId());
+            }
+            if (result.getAllocationStatus() == AllocationStatus.HELD) {
+                holdStore.put(holdKey(holdExpiresAt, storeKey, command.getReservationId()), result);
+            }
+            context.forward(new Record<>(command.getReservationId(), result, record.timestamp()));
+            lastTimestamp = record.timestamp();
+        }
+
+        if (changed) {
+            seatStore.put(storeKey, seats);
+            statusChanged(storeKey, seats, lastTimestamp);
+        }
     }
 
-    private List<String> findConsecutiveSeats(List<String> availableSeats, int seatCount) {
-        if (availableSeats.size() < seatCount) {
-            return null;
+    /**
+     * @param allocated null for a rejection
+     * @param holdExpiresAt 0 unless the seats are only held
+     */
+    private static ReservationCompletedEvent result(ReservationCommand command, SeatRange allocated, int seatsPerRow,
+                                                    long holdExpiresAt) {
+        return ReservationCompletedEvent.newBuilder()
+                .setReservationId(command.getReservationId())
+                .setEventId(command.getEventId())
+                .setUserId(command.getUserId())
+                .setAllocationStatus(allocated == null ? AllocationStatus.REJECTED
+                        : holdExpiresAt == 0 ? AllocationStatus.CONFIRMED : AllocationStatus.HELD)
+                .setSection(command.getSection())
+                .setShard(command.getShard())
+                .setSeatCount(command.getSeatCount())
+                .setSeatsPerRow(seatsPerRow)
+                .setSeatRanges(allocated == null ? List.of() : List.of(allocated))
+                .setTimestamp(Instant.now().toEpochMilli())
+                .setHoldExpiresAt(holdExpiresAt)
+                .build();
+    }
+
+    /**
+     * Answers a command whose reservation already has an allocation with that allocation, if it is
+     * still live. One cancelled or expired since then already had its final result published, so
+     * nothing is sent again.
+     *
+     * @return true if the reservation was allocated before and must not be allocated again
+     */
+    private boolean replayed(ReservationCommand command, long timestamp) {
+        if (!allocatedIds.mightContain(command.getReservationId())) {
+            return false;
+        }
+        KeyValue<Long, ReservationCompletedEvent> allocation = reservation(command.getReservationId());
+        if (allocation == null) {
+            return false;
         }
+        if (isLive(allocation.value)) {
+            context.forward(new Record<>(command.getReservationId(), allocation.value, timestamp));
+        }
+        return true;
+    }
 
-        for (int i = 0; i <= availableSeats.size() - seatCount; i++) {
-            boolean consecutive = true;
-            List<String> candidate = new ArrayList<>();
-            candidate.add(availableSeats.get(i));
+    private void rememberAllocated(String reservationId) {
+        allocatedIds.add(reservationId);
+        if (allocatedIds.isFull()) {
+            rebuildAllocatedIds(allocatedIds.size() * 2);
+        }
+    }
 
-            for (int j = 1; j < seatCount; j++) {
-                String prevSeat = availableSeats.get(i + j - 1);
-                String currSeat = availableSeats.get(i + j);
+    /**
+     * Refills the filter of allocated ids from every entry still within the retention.
+     */
+    private void rebuildAllocatedIds(int minCapacity) {
+        List<String> ids = new ArrayList<>();
+        try (KeyValueIterator<Windowed<String>, ReservationCompletedEvent> it =
+                     reservationStore.fetchAll(retentionStart(), Long.MAX_VALUE)) {
+            while (it.hasNext()) {
+                ids.add(it.next().key.key());
+            }
+        }
+        allocatedIds = new AllocatedReservations(Math.max(minCapacity, ids.size() * 2));
+        ids.forEach(allocatedIds::add);
+    }
+
+    private static boolean isLive(ReservationCompletedEvent allocation) {
+        return allocation.getAllocationStatus() == AllocationStatus.HELD
+                || allocation.getAllocationStatus() == AllocationStatus.CONFIRMED;
+    }
 
-                if (!areConsecutive(prevSeat, currSeat)) {
-                    consecutive = false;
+    private void confirmHold(HoldConfirmCommand command, long timestamp) {
+        String storeKey = SectionKeys.storeKey(command.getEventId(), command.getSection(), command.getShard());
+        String holdKey = holdKey(command.getHoldExpiresAt(), storeKey, command.getReservationId());
+        ReservationCompletedEvent hold = holdStore.get(holdKey);
+        // Already confirmed, or expired (EXPIRED was sent); a hold past its deadline is left to the sweep
+        if (hold == null || context.currentSystemTimeMs() >= command.getHoldExpiresAt()) {
+            return;
+        }
+        holdStore.delete(holdKey);
+        hold.setAllocationStatus(AllocationStatus.CONFIRMED);
+        hold.setHoldExpiresAt(0);
+        hold.setTimestamp(Instant.now().toEpochMilli());
+        KeyValue<Long, ReservationCompletedEvent> allocation = reservation(hold.getReservationId());
+        if (allocation != null) {
+            reservationStore.put(hold.getReservationId(), hold, allocation.key);
+        }
+        context.forward(new Record<>(hold.getReservationId(), hold, timestamp));
+    }
+
+    private void cancel(CancelReservationCommand command, long timestamp) {
+        KeyValue<Long, ReservationCompletedEvent> entry = reservation(command.getReservationId());
+        // Never allocated, already cancelled, expired, or past the store's retention: nothing left to release
+        if (entry == null || !isLive(entry.value)) {
+            return;
+        }
+        ReservationCompletedEvent allocation = entry.value;
+        String storeKey = SectionKeys.storeKey(allocation.getEventId(), allocation.getSection(), allocation.getShard());
+        if (allocation.getAllocationStatus() == AllocationStatus.HELD) {
+            holdStore.delete(holdKey(allocation.getHoldExpiresAt(), storeKey, allocation.getReservationId()));
+        }
+        release(storeKey, allocation, timestamp);
+
+        allocation.setAllocationStatus(AllocationStatus.CANCELLED);
+        allocation.setHoldExpiresAt(0);
+        allocation.setTimestamp(Instant.now().toEpochMilli());
+        reservationStore.put(allocation.getReservationId(), allocation, entry.key);
+        context.forward(new Record<>(allocation.getReservationId(), allocation, timestamp));
+    }
+
+    /**
+     * Releases every hold whose deadline has passed. The iterator stops at the first key past
+     * {@code now}, so only expired holds are read.
+     */
+    private void expireHolds(long now) {
+        List<KeyValue<String, ReservationCompletedEvent>> expired = new ArrayList<>();
+        try (KeyValueIterator<String, ReservationCompletedEvent> it = holdStore.all()) {
+            while (it.hasNext()) {
+                KeyValue<String, ReservationCompletedEvent> hold = it.next();
+                if (deadlineOf(hold.key) > now) {
                     break;
                 }
-                candidate.add(currSeat);
+                expired.add(hold);
             }
+        }
 
-            if (consecutive) {
-                return candidate;
+        for (KeyValue<String, ReservationCompletedEvent> hold : expired) {
+            ReservationCompletedEvent event = hold.value;
+            String storeKey = SectionKeys.storeKey(event.getEventId(), event.getSection(), event.getShard());
+            holdStore.delete(hold.key);
+            release(storeKey, event, now);
+
+            event.setAllocationStatus(AllocationStatus.EXPIRED);
+            event.setTimestamp(Instant.now().toEpochMilli());
+            KeyValue<Long, ReservationCompletedEvent> allocation = reservation(event.getReservationId());
+            if (allocation != null) {
+                reservationStore.put(event.getReservationId(), event, allocation.key);
             }
+            context.forward(new Record<>(event.getReservationId(), event, now));
+        }
+    }
+
+    /**
+     * @return the allocation with the time it was stored at, or null if there is none within the
+     *         retention (the store's cache can still hold one it has expired)
+     */
+    private KeyValue<Long, ReservationCompletedEvent> reservation(String reservationId) {
+        try (WindowStoreIterator<ReservationCompletedEvent> it =
+                     reservationStore.fetch(reservationId, retentionStart(), Long.MAX_VALUE)) {
+            return it.hasNext() ? it.next() : null;
         }
-        return null;
     }
 
-    private boolean areConsecutive(String seat1, String seat2) {
-        int num1 = extractSeatNumber(seat1);
-        int num2 = extractSeatNumber(seat2);
-        return num2 - num1 == 1;
+    private long retentionStart() {
+        return Math.max(0, context.currentSystemTimeMs() - reservationRetention.toMillis() + 1);
     }
 
-    private int extractSeatNumber(String seatNumber) {
-        int lastDash = seatNumber.lastIndexOf('-');
-        if (lastDash >= 0 && lastDash < seatNumber.length() - 1) {
-            return Integer.parseInt(seatNumber.substring(lastDash + 1));
+    private void release(String storeKey, ReservationCompletedEvent allocation, long timestamp) {
+        SectionSeatMap seats = seatStore.get(storeKey);
+        if (seats != null) {
+            allocation.getSeatRanges().forEach(seats::release);
+            seatStore.put(storeKey, seats);
+            statusChanged(storeKey, seats, timestamp);
         }
-        return -1;
+    }
+
+    /**
+     * Hold index key; the fixed-width hex deadline first makes the store's key order the expiry order.
+     */
+    private static String holdKey(long holdExpiresAt, String storeKey, String reservationId) {
+        return sortableHex(holdExpiresAt) + "/" + storeKey + "/" + reservationId;
+    }
+
+    /**
+     * Fixed-width (16 digit) lower-case hex, so keys embedding it sort numerically; what
+     * {@code String.format("%016x")} produces, without parsing a format string per command.
+     */
+    static String sortableHex(long value) {
+        char[] digits = new char[16];
+        for (int i = digits.length - 1; i >= 0; i--) {
+            digits[i] = HEX_DIGITS[(int) value & 0xf];
+            value >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    private static long deadlineOf(String holdKey) {
+        return Long.parseUnsignedLong(holdKey.substring(0, 16), 16);
+    }
+
+    private void statusChanged(String storeKey, SectionSeatMap seats, long timestamp) {
+        if (statusInterval.isZero() || seats.getAvailableCount() == 0) {
+            pendingStatus.remove(storeKey);
+            publishStatus(storeKey, seats, timestamp);
+        } else {
+            pendingStatus.add(storeKey);
+        }
+    }
+
+    private void publishPendingStatus(long timestamp) {
+        for (String storeKey : pendingStatus) {
+            // Current object, not the one that was marked: the section may have been re-initialised since
+            SectionSeatMap seats = seatStore.get(storeKey);
+            if (seats != null) {
+                publishStatus(storeKey, seats, timestamp);
+            }
+        }
+        pendingStatus.clear();
+    }
+
+    private void publishStatus(String storeKey, SectionSeatMap seats, long timestamp) {
+        SectionStatusEvent status = SectionStatusEvent.newBuilder()
+                .setEventId(seats.getEventId())
+                .setSection(seats.getSection())
+                .setAvailableCount(seats.getAvailableCount())
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+        context.forward(new Record<>(storeKey, status, timestamp));
     }
 }
@@ -0,0 +1,98 @@
+package com.keer.ticketmaster.streaming.seat;
+
+/**
+ * How a group of adjacent seats is placed inside a section, chosen per event at section init.
+ *
+ * Every strategy keeps a group within one row and works only on the section's bitset and
+ * free-run index using primitive locals, so selection allocates nothing per request.
+ * Each returns the global (0-based, row-major) index of the first seat, or -1 if no row fits.
+ */
+public enum SeatAllocationStrategy {
+
+    /** Lowest row that fits, leftmost run in it. Cheapest; fills the section front to back. */
+    FIRST_FIT {
+        @Override
+        int select(SectionSeatMap seats, int count) {
+            int row = seats.nextRow(0, count);
+            if (row < 0) {
+                return -1;
+            }
+            for (int start = seats.nextFree(row, 0); ; ) {
+                int end = seats.nextTaken(row, start);
+                if (end - start >= count) {
+                    return row * seats.getSeatsPerRow() + start;
+                }
+                start = seats.nextFree(row, end);
+            }
+        }
+    },
+
+    /** Smallest free run that fits, so large runs stay intact for large groups. */
+    BEST_FIT {
+        @Override
+        int select(SectionSeatMap seats, int count) {
+            int best = -1;
+            int bestLength = Integer.MAX_VALUE;
+            for (int row = seats.nextRow(0, count); row >= 0; row = seats.nextRow(row + 1, count)) {
+                for (int start = seats.nextFree(row, 0); start < seats.getSeatsPerRow(); ) {
+                    int end = seats.nextTaken(row, start);
+                    int length = end - start;
+                    if (length >= count && length < bestLength) {
+                        best = row * seats.getSeatsPerRow() + start;
+                        bestLength = length;
+                        if (length == count) {
+                            return best;
+                        }
+                    }
+                    start = seats.nextFree(row, end);
+                }
+            }
+            return best;
+        }
+    },
+
+    /** Lowest row that fits, placed as close to the row's center as its free runs allow. */
+    CENTER_PREFERRED {
+        @Override
+        int select(SectionSeatMap seats, int count) {
+            int row = seats.nextRow(0, count);
+            if (row < 0) {
+                return -1;
+            }
+            int seatsPerRow = seats.getSeatsPerRow();
+            int centered = (seatsPerRow - count) / 2;
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int start = seats.nextFree(row, 0); start < seatsPerRow; ) {
+                int end = seats.nextTaken(row, start);
+                if (end - start >= count) {
+                    int placed = Math.max(start, Math.min(centered, end - count));
+                    int distance = Math.abs(placed - centered);
+                    if (distance < bestDistance) {
+                        best = placed;
+                        bestDistance = distance;
+                    }
+                }
+                start = seats.nextFree(row, end);
+            }
+            return row * seatsPerRow + best;
+        }
+    };
+
+    abstract int select(SectionSeatMap seats, int count);
+
+    /**
+     * Resolves a strategy name from a command or stored state; unknown or missing names fall back to
+     * {@link #FIRST_FIT}, the behaviour sections had before strategies existed.
+     */
+    public static SeatAllocationStrategy fromName(String name) {
+        if (name != null) {
+            for (SeatAllocationStrategy strategy : values()) {
+                if (strategy.name().equalsIgnoreCase(name)) {
+                    return strategy;
+                }
+            }
+        }
+        return FIRST_FIT;
+    }
+}
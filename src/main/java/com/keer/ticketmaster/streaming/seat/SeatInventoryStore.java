@@ -0,0 +1,225 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.SectionSeatState;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.query.Position;
+import org.apache.kafka.streams.query.PositionBound;
+import org.apache.kafka.streams.query.Query;
+import org.apache.kafka.streams.query.QueryConfig;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write-back cache of decoded {@link SectionSeatMap}s in front of the persistent seat inventory.
+ *
+ * One instance exists per task, so every processor of the seat sub-topology sees the same live
+ * objects and a hot section is decoded once instead of on every request. Changed sections are only
+ * encoded and written to RocksDB and the changelog in {@link #flush()}, which Kafka Streams calls on
+ * every commit before offsets are committed, so nothing acknowledged can be lost.
+ *
+ * Deliberately not a {@link KeyValueStore}: Streams would hand processors a read-write decorator
+ * instead of this class. The cache is dropped whenever the store is (re)initialised or closed, and
+ * processors call {@link #invalidate()} from their own {@code init} so a task that was recycled from
+ * a standby never serves sections that went stale while the changelog was being replayed.
+ *
+ * Alongside the cache, the store keeps every section's current capacity (longest free run) for as
+ * long as the task lives, evicted sections included, refreshed on every decode and {@link #put}.
+ * {@link #mayFit} answers from it alone, so a request that cannot be seated (above all after a
+ * sell-out) is rejected without a RocksDB read or decode.
+ */
+public final class SeatInventoryStore implements StateStore {
+
+    private final KeyValueStore<String, SectionSeatState> inner;
+    private final Set<String> dirty = new HashSet<>();
+    private final LinkedHashMap<String, SectionSeatMap> cache;
+    private final SectionCapacities capacities = new SectionCapacities();
+
+    SeatInventoryStore(KeyValueStore<String, SectionSeatState> inner, int maxCachedSections) {
+        this.inner = inner;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SectionSeatMap> eldest) {
+                if (size() <= maxCachedSections) {
+                    return false;
+                }
+                if (dirty.remove(eldest.getKey())) {
+                    SeatInventoryStore.this.inner.put(eldest.getKey(), eldest.getValue().toState());
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Persistent seat inventory wrapped by a bounded section cache. Streams' own record cache is
+     * disabled underneath, it would only buffer the encoded copies this store already defers.
+     */
+    public static StoreBuilder<SeatInventoryStore> builder(String name, Serde<SectionSeatState> seatStateSerde,
+                                                           int maxCachedSections) {
+        return new Builder(Stores.keyValueStoreBuilder(
+                        Stores.persistentKeyValueStore(name), Serdes.String(), seatStateSerde)
+                .withCachingDisabled(), maxCachedSections);
+    }
+
+    /**
+     * @return the live section, or null if the section was never initialised on this task
+     */
+    public SectionSeatMap get(String key) {
+        SectionSeatMap seats = cache.get(key);
+        if (seats == null) {
+            SectionSeatState state = inner.get(key);
+            if (state == null) {
+                capacities.put(key, 0);
+                return null;
+            }
+            seats = SectionSeatMap.from(state);
+            cache.put(key, seats);
+            capacities.put(key, seats.longestFreeRun());
+        }
+        return seats;
+    }
+
+    /**
+     * Whether a group of {@code count} might be seated in the section, from memory only: false when
+     * the section is known to be sold out, to have no free run that long, or not to exist. Sections
+     * not seen since the task started answer true.
+     */
+    public boolean mayFit(String key, int count) {
+        return count <= capacities.get(key);
+    }
+
+    /**
+     * Records a new or modified section; it is written through on the next flush.
+     */
+    public void put(String key, SectionSeatMap seats) {
+        cache.put(key, seats);
+        dirty.add(key);
+        capacities.put(key, seats.longestFreeRun());
+    }
+
+    /**
+     * Drops every cached section, including unflushed changes, which at this point belong to
+     * work whose offsets were never committed and will be reprocessed.
+     */
+    public void invalidate() {
+        cache.clear();
+        dirty.clear();
+        capacities.clear();
+    }
+
+    /**
+     * The encoded store underneath, bypassing the cache.
+     */
+    KeyValueStore<String, SectionSeatState> inner() {
+        return inner;
+    }
+
+    @Override
+    public String name() {
+        return inner.name();
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        invalidate();
+        inner.init(context, root);
+    }
+
+    @Override
+    public void flush() {
+        for (String key : dirty) {
+            inner.put(key, cache.get(key).toState());
+        }
+        dirty.clear();
+        inner.flush();
+    }
+
+    @Override
+    public void close() {
+        invalidate();
+        inner.close();
+    }
+
+    @Override
+    public boolean persistent() {
+        return inner.persistent();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return inner.isOpen();
+    }
+
+    @Override
+    public <R> QueryResult<R> query(Query<R> query, PositionBound positionBound, QueryConfig config) {
+        return inner.query(query, positionBound, config);
+    }
+
+    @Override
+    public Position getPosition() {
+        return inner.getPosition();
+    }
+
+    private static final class Builder implements StoreBuilder<SeatInventoryStore> {
+
+        private final StoreBuilder<KeyValueStore<String, SectionSeatState>> inner;
+        private final int maxCachedSections;
+
+        private Builder(StoreBuilder<KeyValueStore<String, SectionSeatState>> inner, int maxCachedSections) {
+            this.inner = inner;
+            this.maxCachedSections = maxCachedSections;
+        }
+
+        @Override
+        public StoreBuilder<SeatInventoryStore> withCachingEnabled() {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<SeatInventoryStore> withCachingDisabled() {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<SeatInventoryStore> withLoggingEnabled(Map<String, String> config) {
+            inner.withLoggingEnabled(config);
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<SeatInventoryStore> withLoggingDisabled() {
+            inner.withLoggingDisabled();
+            return this;
+        }
+
+        @Override
+        public SeatInventoryStore build() {
+            return new SeatInventoryStore(inner.build(), maxCachedSections);
+        }
+
+        @Override
+        public Map<String, String> logConfig() {
+            return inner.logConfig();
+        }
+
+        @Override
+        public boolean loggingEnabled() {
+            return inner.loggingEnabled();
+        }
+
+        @Override
+        public String name() {
+            return inner.name();
+        }
+    }
+}
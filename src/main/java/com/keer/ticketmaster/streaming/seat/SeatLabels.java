@@ -0,0 +1,43 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seat labels ({@code section-globalIndex}, 1-based, row-major) for the seat ranges carried by
+ * {@link ReservationCompletedEvent}. The seat processor only writes {@code (row, startSeat, count)};
+ * labels are built at the HTTP edge, where responses still list individual seats, and for
+ * {@code reservation-completed} only while its v1 fields are filled in.
+ */
+public final class SeatLabels {
+
+    private SeatLabels() {}
+
+    static String label(String section, int globalIndex) {
+        return section + "-" + (globalIndex + 1);
+    }
+
+    public static List<String> of(ReservationCompletedEvent event) {
+        // v1 records, and results whose labels were already filled in for reservation-completed
+        List<String> labelled = event.getAllocatedSeats();
+        if (labelled != null && !labelled.isEmpty()) {
+            return labelled;
+        }
+        List<SeatRange> ranges = event.getSeatRanges();
+        if (ranges == null || ranges.isEmpty()) {
+            return List.of();
+        }
+        int seatsPerRow = event.getSeatsPerRow();
+        List<String> labels = new ArrayList<>(event.getSeatCount());
+        for (SeatRange range : ranges) {
+            int first = range.getRow() * seatsPerRow + range.getStartSeat();
+            for (int i = 0; i < range.getCount(); i++) {
+                labels.add(label(event.getSection(), first + i));
+            }
+        }
+        return labels;
+    }
+}
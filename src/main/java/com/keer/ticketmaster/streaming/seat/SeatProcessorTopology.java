@@ -2,34 +2,48 @@ package com.keer.ticketmaster.streaming.seat;
 
 import com.keer.ticketmaster.avro.*;
 import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.streaming.PinnedAvroSerde;
+import com.keer.ticketmaster.streaming.ReservationResults;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Branched;
 import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Produced;
-import org.apache.kafka.streams.kstream.ValueMapper;
-import org.apache.kafka.streams.state.KeyValueStore;
-import org.apache.kafka.streams.state.StoreBuilder;
 import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.time.Duration;
 import java.util.Map;
 
 /**
  * Seat Processor (tm-seat) topology.
  *
  * Consumes:
- *   - section-init          (key=eventId-section) → SectionInitProcessor → section-status
- *   - seat-allocation-requests (key=eventId-section) → SeatAllocationProcessor → seat-allocation-results
+ *   - section-init          (key=eventId-section[#shard]) → SectionInitProcessor → section-status
+ *                           sharded sections are first split into per-shard commands on section-init
+ *   - seat-allocation-requests (key=eventId-section[#shard]) → SeatAllocationProcessor → seat-allocation-results
+ *   - seat-hold-confirmations  (key=eventId-section[#shard]) → SeatAllocationProcessor → seat-allocation-results
+ *   - seat-cancellations       (key=eventId-section[#shard]) → SeatAllocationProcessor → seat-allocation-results
  *
  * Produces:
  *   - seat-allocation-results (key=reservationId)
- *   - section-status          (key=eventId-section)
+ *   - section-status          (key=eventId-section[#shard])
  *
- * State store: seat-inventory-store (RocksDB)
+ * State stores:
+ *   - seat-inventory-store         (RocksDB, behind a per-task write-back cache of decoded sections)
+ *   - seat-allocation-buffer-store (in-memory, cached and changelogged; commands waiting in an allocation batch)
+ *   - seat-hold-store              (RocksDB; open holds ordered by deadline)
+ *   - seat-reservation-window-store (RocksDB window store, cached; every allocation by reservationId with
+ *                                   its latest status, kept for reservation.retention-ms; answers replays
+ *                                   and cancellations)
  */
 @Configuration
 @Profile({"seat-processor", "default"})
@@ -38,59 +52,116 @@ public class SeatProcessorTopology {
     @Value("${spring.kafka.streams.properties[schema.registry.url]}")
     private String schemaRegistryUrl;
 
+    @Value("${ticketmaster.kafka.internal-serde:registry}")
+    private String internalSerde;
+
+    @Value("${ticketmaster.seat.inventory-cache.max-sections:10000}")
+    private int maxCachedSections;
+
+    @Value("${ticketmaster.seat.batch.max-size:1}")
+    private int allocationBatchSize;
+
+    @Value("${ticketmaster.seat.batch.window-ms:5}")
+    private long allocationBatchWindowMs;
+
+    @Value("${ticketmaster.seat.status.interval-ms:100}")
+    private long statusIntervalMs;
+
+    @Value("${ticketmaster.seat.hold.ttl-ms:0}")
+    private long holdTtlMs;
+
+    @Value("${ticketmaster.seat.reservation.retention-ms:2592000000}")
+    private long reservationRetentionMs;
+
     @Autowired
     public void seatProcessorPipeline(StreamsBuilder builder) {
 
         Map<String, String> serdeConfig = Map.of("schema.registry.url", schemaRegistryUrl);
 
-        SpecificAvroSerde<ReservationCommand> commandSerde = newAvroSerde(serdeConfig);
-        SpecificAvroSerde<ReservationCompletedEvent> completedSerde = newAvroSerde(serdeConfig);
+        // seat-allocation-requests/-results and the inventory changelog never leave the cluster
+        Serde<ReservationCommand> commandSerde = PinnedAvroSerde.internal(
+                internalSerde, newAvroSerde(serdeConfig), ReservationCommand.getClassSchema());
+        Serde<ReservationCompletedEvent> completedSerde = PinnedAvroSerde.internal(
+                internalSerde, newAvroSerde(serdeConfig), ReservationCompletedEvent.getClassSchema(),
+                ReservationResults.v1Schema());
         SpecificAvroSerde<SectionInitCommand> sectionInitSerde = newAvroSerde(serdeConfig);
-        SpecificAvroSerde<SectionSeatState> seatStateSerde = newAvroSerde(serdeConfig);
+        Serde<SectionSeatState> seatStateSerde = PinnedAvroSerde.internal(
+                internalSerde, newAvroSerde(serdeConfig), SectionSeatState.getClassSchema());
         SpecificAvroSerde<SectionStatusEvent> statusEventSerde = newAvroSerde(serdeConfig);
+        SpecificAvroSerde<HoldConfirmCommand> holdConfirmSerde = newAvroSerde(serdeConfig);
+        SpecificAvroSerde<CancelReservationCommand> cancelSerde = newAvroSerde(serdeConfig);
 
-        // State store for seat inventory
-        StoreBuilder<KeyValueStore<String, SectionSeatState>> seatStoreBuilder =
-                Stores.keyValueStoreBuilder(
-                        Stores.persistentKeyValueStore(KafkaConstants.SEAT_INVENTORY_STORE),
+        // State store for seat inventory; sections are encoded only when the task commits
+        builder.addStateStore(SeatInventoryStore.builder(
+                KafkaConstants.SEAT_INVENTORY_STORE, seatStateSerde, maxCachedSections));
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE),
                         Serdes.String(),
-                        seatStateSerde
-                );
-        builder.addStateStore(seatStoreBuilder);
+                        commandSerde)
+                .withCachingEnabled());
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(KafkaConstants.SEAT_HOLD_STORE),
+                Serdes.String(),
+                completedSerde));
+        Duration reservationRetention = Duration.ofMillis(reservationRetentionMs);
+        builder.addStateStore(Stores.windowStoreBuilder(
+                        Stores.persistentWindowStore(KafkaConstants.SEAT_RESERVATION_STORE,
+                                reservationRetention, reservationRetention, false),
+                        Serdes.String(),
+                        completedSerde)
+                .withCachingEnabled());
 
         // --- Init path: section-init -> SectionInitProcessor -> section-status ---
-        builder.stream(KafkaConstants.TOPIC_SECTION_INIT, Consumed.with(Serdes.String(), sectionInitSerde))
+        var inits = builder.stream(KafkaConstants.TOPIC_SECTION_INIT, Consumed.with(Serdes.String(), sectionInitSerde))
+                .split(Named.as("section-init"))
+                .branch((key, command) -> SectionShards.needsSplit(command), Branched.as("-sharded"))
+                .defaultBranch(Branched.as("-local"));
+
+        // Sharded section: fan out one command per shard (back through section-init, keyed eventId-section#k)
+        // and publish the section-level directory entry carrying the shard count
+        KStream<String, SectionInitCommand> sharded = inits.get("section-init-sharded");
+        sharded.flatMap((key, command) -> SectionShards.split(command))
+                .to(KafkaConstants.TOPIC_SECTION_INIT, Produced.with(Serdes.String(), sectionInitSerde));
+        sharded.mapValues(SectionShards::directoryStatus)
+                .to(KafkaConstants.TOPIC_SECTION_STATUS, Produced.with(Serdes.String(), statusEventSerde));
+
+        inits.get("section-init-local")
                 .process(SectionInitProcessor::new, KafkaConstants.SEAT_INVENTORY_STORE)
-                .mapValues((ValueMapper<SectionSeatState, SectionStatusEvent>) state ->
-                        SectionStatusEvent.newBuilder()
-                                .setEventId(state.getEventId())
-                                .setSection(state.getSection())
-                                .setAvailableCount(state.getAvailableCount())
-                                .setTimestamp(System.currentTimeMillis())
-                                .build())
                 .to(KafkaConstants.TOPIC_SECTION_STATUS, Produced.with(Serdes.String(), statusEventSerde));
 
-        // --- Allocation path: seat-allocation-requests -> SeatAllocationProcessor -> seat-allocation-results ---
-        var completedStream = builder.stream(KafkaConstants.TOPIC_SEAT_ALLOCATION_REQUESTS, Consumed.with(Serdes.String(), commandSerde))
-                .process(SeatAllocationProcessor::new, KafkaConstants.SEAT_INVENTORY_STORE);
-
-        completedStream.to(KafkaConstants.TOPIC_SEAT_ALLOCATION_RESULTS, Produced.with(Serdes.String(), completedSerde));
-
-        // --- Status update path: allocation results -> SectionStatusEmitter -> section-status ---
-        completedStream
-                .process(SectionStatusEmitter::new, KafkaConstants.SEAT_INVENTORY_STORE)
-                .mapValues((ValueMapper<SectionSeatState, SectionStatusEvent>) state ->
-                        SectionStatusEvent.newBuilder()
-                                .setEventId(state.getEventId())
-                                .setSection(state.getSection())
-                                .setAvailableCount(state.getAvailableCount())
-                                .setTimestamp(System.currentTimeMillis())
-                                .build())
+        // --- Allocation path: seat-allocation-requests -> SeatAllocationProcessor -> seat-allocation-results
+        //     (+ section-status when the available count changed, coalesced per status interval);
+        //     hold confirmations and cancellations share the processor, so seats have a single writer ---
+        KStream<String, SpecificRecord> holdConfirmations = builder.stream(KafkaConstants.TOPIC_SEAT_HOLD_CONFIRMATIONS,
+                        Consumed.with(Serdes.String(), holdConfirmSerde))
+                .mapValues(command -> command);
+        KStream<String, SpecificRecord> cancellations = builder.stream(KafkaConstants.TOPIC_SEAT_CANCELLATIONS,
+                        Consumed.with(Serdes.String(), cancelSerde))
+                .mapValues(command -> command);
+        var allocationOutputs = builder.stream(KafkaConstants.TOPIC_SEAT_ALLOCATION_REQUESTS, Consumed.with(Serdes.String(), commandSerde))
+                .<SpecificRecord>mapValues(command -> command)
+                .merge(holdConfirmations)
+                .merge(cancellations)
+                .process(() -> new SeatAllocationProcessor(allocationBatchSize, Duration.ofMillis(allocationBatchWindowMs),
+                                Duration.ofMillis(statusIntervalMs), Duration.ofMillis(holdTtlMs), reservationRetention),
+                        KafkaConstants.SEAT_INVENTORY_STORE, KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE,
+                        KafkaConstants.SEAT_HOLD_STORE, KafkaConstants.SEAT_RESERVATION_STORE)
+                .split(Named.as("allocation"))
+                .branch((key, value) -> value instanceof ReservationCompletedEvent, Branched.as("-results"))
+                .branch((key, value) -> value instanceof SectionStatusEvent, Branched.as("-status"))
+                .noDefaultBranch();
+
+        allocationOutputs.get("allocation-results")
+                .mapValues(value -> (ReservationCompletedEvent) value)
+                .to(KafkaConstants.TOPIC_SEAT_ALLOCATION_RESULTS, Produced.with(Serdes.String(), completedSerde));
+
+        allocationOutputs.get("allocation-status")
+                .mapValues(value -> (SectionStatusEvent) value)
                 .to(KafkaConstants.TOPIC_SECTION_STATUS, Produced.with(Serdes.String(), statusEventSerde));
 
     }
 
-    private static <T extends org.apache.avro.specific.SpecificRecord> SpecificAvroSerde<T> newAvroSerde(
+    private static <T extends SpecificRecord> SpecificAvroSerde<T> newAvroSerde(
             Map<String, String> serdeConfig) {
         SpecificAvroSerde<T> serde = new SpecificAvroSerde<>();
         serde.configure(serdeConfig, false);
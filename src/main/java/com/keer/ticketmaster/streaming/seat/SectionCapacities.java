@@ -0,0 +1,71 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import java.util.Arrays;
+
+/**
+ * Section key to the largest group the section can seat right now (its longest free run;
+ * 0 once sold out or for a section that does not exist).
+ *
+ * Open addressing with linear probing over parallel arrays, so a lookup on the reject path
+ * neither boxes nor allocates. Entries are overwritten in place and only dropped all at once.
+ */
+final class SectionCapacities {
+
+    static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private String[] keys = new String[64];
+    private int[] capacities = new int[64];
+    private int size;
+
+    /**
+     * @return the recorded capacity, or {@link #UNKNOWN}
+     */
+    int get(String key) {
+        int mask = keys.length - 1;
+        for (int slot = key.hashCode() & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(key)) {
+                return capacities[slot];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    void put(String key, int capacity) {
+        int mask = keys.length - 1;
+        int slot = key.hashCode() & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                capacities[slot] = capacity;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        capacities[slot] = capacity;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldCapacities = capacities;
+        keys = new String[oldKeys.length * 2];
+        capacities = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldCapacities[i]);
+            }
+        }
+    }
+}
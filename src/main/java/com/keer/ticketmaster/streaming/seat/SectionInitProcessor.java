@@ -1,28 +1,27 @@
 package com.keer.ticketmaster.streaming.seat;
 
 import com.keer.ticketmaster.avro.SectionInitCommand;
-import com.keer.ticketmaster.avro.SectionSeatState;
+import com.keer.ticketmaster.avro.SectionStatusEvent;
 import com.keer.ticketmaster.config.KafkaConstants;
 import org.apache.kafka.streams.processor.api.Processor;
 import org.apache.kafka.streams.processor.api.ProcessorContext;
 import org.apache.kafka.streams.processor.api.Record;
-import org.apache.kafka.streams.state.KeyValueStore;
-
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
+/**
+ * Creates the seat state of an unsharded section, or of one shard of a sharded section
+ * (see {@link SectionShards}), and announces its availability on {@code section-status}.
+ */
 public class SectionInitProcessor
-        implements Processor<String, SectionInitCommand, String, SectionSeatState> {
+        implements Processor<String, SectionInitCommand, String, SectionStatusEvent> {
 
-    private ProcessorContext<String, SectionSeatState> context;
-    private KeyValueStore<String, SectionSeatState> seatStore;
+    private ProcessorContext<String, SectionStatusEvent> context;
+    private SeatInventoryStore seatStore;
 
     @Override
-    public void init(ProcessorContext<String, SectionSeatState> context) {
+    public void init(ProcessorContext<String, SectionStatusEvent> context) {
         this.context = context;
         this.seatStore = context.getStateStore(KafkaConstants.SEAT_INVENTORY_STORE);
+        this.seatStore.invalidate();
     }
 
     @Override
@@ -33,34 +32,21 @@ public class SectionInitProcessor
         int rows = command.getRows();
         int seatsPerRow = command.getSeatsPerRow();
 
-        Set<String> reserved = new HashSet<>(command.getInitialReserved());
-
-        Map<String, String> seatStatuses = new HashMap<>();
-        int availableCount = 0;
-        int globalIndex = 1;
-
-        for (int row = 1; row <= rows; row++) {
-            for (int col = 1; col <= seatsPerRow; col++) {
-                String seatName = section + "-" + globalIndex;
-                if (reserved.contains(seatName)) {
-                    seatStatuses.put(seatName, "RESERVED");
-                } else {
-                    seatStatuses.put(seatName, "AVAILABLE");
-                    availableCount++;
-                }
-                globalIndex++;
-            }
+        SectionSeatMap seats = SectionSeatMap.create(eventId, section, command.getRowOffset(), rows, seatsPerRow,
+                SeatAllocationStrategy.fromName(command.getAllocationStrategy()));
+        for (String label : command.getInitialReserved()) {
+            seats.reserve(label);
         }
 
-        String storeKey = eventId + "-" + section;
-        SectionSeatState state = SectionSeatState.newBuilder()
+        String storeKey = SectionKeys.storeKey(eventId, section, command.getShard());
+        seatStore.put(storeKey, seats);
+
+        SectionStatusEvent status = SectionStatusEvent.newBuilder()
                 .setEventId(eventId)
                 .setSection(section)
-                .setSeatStatuses(seatStatuses)
-                .setAvailableCount(availableCount)
+                .setAvailableCount(seats.getAvailableCount())
+                .setTimestamp(System.currentTimeMillis())
                 .build();
-
-        seatStore.put(storeKey, state);
-        context.forward(new Record<>(storeKey, state, record.timestamp()));
+        context.forward(new Record<>(storeKey, status, record.timestamp()));
     }
 }
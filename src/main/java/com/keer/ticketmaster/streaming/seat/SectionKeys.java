@@ -0,0 +1,24 @@
+package com.keer.ticketmaster.streaming.seat;
+
+/**
+ * Kafka keys for section-scoped records.
+ *
+ * An unsharded section is keyed {@code eventId-section}. A sharded section keeps that key for its
+ * directory entry on {@code section-status} (carrying the shard count) and keys each shard
+ * {@code eventId-section#k}, so shards hash to different partitions and seat processor threads.
+ */
+public final class SectionKeys {
+
+    private SectionKeys() {}
+
+    public static String sectionKey(long eventId, String section) {
+        return eventId + "-" + section;
+    }
+
+    /**
+     * @param shard the shard index, or null for an unsharded section
+     */
+    public static String storeKey(long eventId, String section, Integer shard) {
+        return shard == null ? sectionKey(eventId, section) : sectionKey(eventId, section) + "#" + shard;
+    }
+}
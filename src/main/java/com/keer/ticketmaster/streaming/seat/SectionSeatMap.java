@@ -0,0 +1,336 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.avro.SectionSeatState;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Decoded, mutable view of one section's seat inventory.
+ *
+ * Seats are kept as a row-major bitset (1 = taken) where every row is padded to whole
+ * 64-bit words; padding bits are always set so a word scan never runs past the row end.
+ * A 100 x 50 section encodes to 800 bytes instead of a ~100KB {@code "A-123" -> "AVAILABLE"} map.
+ *
+ * Seat labels keep the historical {@code section-globalIndex} format (1-based, row-major),
+ * so {@code initialReserved} and API responses are unchanged; allocations are returned as
+ * {@link SeatRange}s and only turned into labels at the edge ({@link SeatLabels}). A shard of a
+ * sharded section holds the rows starting at {@code rowOffset}; its labels and range rows stay
+ * global, while indexes passed to {@link #reserve(int, int)} and returned from {@link #findConsecutive}
+ * are local to the shard.
+ *
+ * A {@link FreeRunIndex} over the rows' longest free runs is built on first search and
+ * kept in step with every change, so a group search never walks the whole section. Where in
+ * a qualifying row the group lands is up to the section's {@link SeatAllocationStrategy}.
+ */
+public final class SectionSeatMap {
+
+    private final long eventId;
+    private final String section;
+    private final int rowOffset;
+    private final int rows;
+    private final int seatsPerRow;
+    private final int wordsPerRow;
+    private final long[] taken;
+    private final SeatAllocationStrategy strategy;
+    private int availableCount;
+    private FreeRunIndex freeRuns;
+
+    private SectionSeatMap(long eventId, String section, int rowOffset, int rows, int seatsPerRow, long[] taken,
+                           SeatAllocationStrategy strategy, int availableCount) {
+        this.eventId = eventId;
+        this.section = section;
+        this.rowOffset = rowOffset;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.wordsPerRow = (seatsPerRow + 63) >>> 6;
+        this.taken = taken;
+        this.strategy = strategy;
+        this.availableCount = availableCount;
+    }
+
+    public static SectionSeatMap create(long eventId, String section, int rows, int seatsPerRow) {
+        return create(eventId, section, rows, seatsPerRow, SeatAllocationStrategy.FIRST_FIT);
+    }
+
+    public static SectionSeatMap create(long eventId, String section, int rows, int seatsPerRow,
+                                        SeatAllocationStrategy strategy) {
+        return create(eventId, section, 0, rows, seatsPerRow, strategy);
+    }
+
+    /**
+     * Creates a section (or the shard of one starting at {@code rowOffset}) with every seat available.
+     */
+    public static SectionSeatMap create(long eventId, String section, int rowOffset, int rows, int seatsPerRow,
+                                        SeatAllocationStrategy strategy) {
+        int safeRows = Math.max(rows, 0);
+        int safeSeatsPerRow = Math.max(seatsPerRow, 0);
+        int wordsPerRow = (safeSeatsPerRow + 63) >>> 6;
+        long[] taken = new long[safeRows * wordsPerRow];
+
+        int tailBits = safeSeatsPerRow & 63;
+        if (tailBits != 0) {
+            long padding = -1L << tailBits;
+            for (int row = 0; row < safeRows; row++) {
+                taken[row * wordsPerRow + wordsPerRow - 1] = padding;
+            }
+        }
+        return new SectionSeatMap(eventId, section, Math.max(rowOffset, 0), safeRows, safeSeatsPerRow, taken, strategy,
+                safeRows * safeSeatsPerRow);
+    }
+
+    /**
+     * Decodes a stored state. Records written before the bitset format (only {@code seatStatuses}
+     * populated) are migrated in place; the next write persists them in the compact format.
+     */
+    public static SectionSeatMap from(SectionSeatState state) {
+        Map<String, String> legacy = state.getSeatStatuses();
+        if (state.getRows() == 0 && legacy != null && !legacy.isEmpty()) {
+            return fromLegacy(state.getEventId(), state.getSection(), legacy);
+        }
+
+        SectionSeatMap seats = create(state.getEventId(), state.getSection(), state.getRowOffset(), state.getRows(),
+                state.getSeatsPerRow(), SeatAllocationStrategy.fromName(state.getAllocationStrategy()));
+        ByteBuffer bytes = state.getTakenSeats().duplicate();
+        if (bytes.remaining() != seats.taken.length * Long.BYTES) {
+            throw new IllegalStateException("Corrupt seat bitset for %d-%s: expected %d bytes, got %d".formatted(
+                    state.getEventId(), state.getSection(), seats.taken.length * Long.BYTES, bytes.remaining()));
+        }
+        bytes.asLongBuffer().get(seats.taken);
+        seats.availableCount = state.getAvailableCount();
+        return seats;
+    }
+
+    /**
+     * Legacy records numbered seats globally without row geometry, so they are migrated
+     * as a single row wide enough to hold the highest seat number.
+     */
+    private static SectionSeatMap fromLegacy(long eventId, String section, Map<String, String> seatStatuses) {
+        int maxSeat = 0;
+        for (String label : seatStatuses.keySet()) {
+            maxSeat = Math.max(maxSeat, seatNumberOf(label));
+        }
+
+        SectionSeatMap seats = create(eventId, section, 1, maxSeat);
+        // Numbers missing from the legacy map never existed, so they start out taken
+        for (int seat = 0; seat < maxSeat; seat++) {
+            String status = seatStatuses.get(section + "-" + (seat + 1));
+            if (!"AVAILABLE".equals(status)) {
+                seats.take(0, seat);
+            }
+        }
+        return seats;
+    }
+
+    public SectionSeatState toState() {
+        ByteBuffer bytes = ByteBuffer.allocate(taken.length * Long.BYTES);
+        bytes.asLongBuffer().put(taken);
+        return SectionSeatState.newBuilder()
+                .setEventId(eventId)
+                .setSection(section)
+                .setRowOffset(rowOffset)
+                .setRows(rows)
+                .setSeatsPerRow(seatsPerRow)
+                .setTakenSeats(bytes)
+                .setAllocationStrategy(strategy.name())
+                .setAvailableCount(availableCount)
+                .setSeatStatuses(Map.of())
+                .build();
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public int getRowOffset() {
+        return rowOffset;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getAvailableCount() {
+        return availableCount;
+    }
+
+    public SeatAllocationStrategy getAllocationStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return the largest group that can currently be seated together; 0 once sold out
+     */
+    public int longestFreeRun() {
+        return availableCount == 0 ? 0 : index().longestRun();
+    }
+
+    public boolean isAvailable(int row, int seat) {
+        return (taken[row * wordsPerRow + (seat >>> 6)] & (1L << seat)) == 0;
+    }
+
+    /**
+     * Picks a run of {@code count} adjacent available seats within a single row,
+     * placed according to the section's allocation strategy.
+     *
+     * @return the global (0-based, row-major) index of the first seat, or -1 if none
+     */
+    public int findConsecutive(int count) {
+        if (count <= 0 || count > availableCount) {
+            return -1;
+        }
+        return strategy.select(this, count);
+    }
+
+    /**
+     * Marks {@code count} seats starting at an index as taken and returns them as a range
+     * (row relative to the whole section). The run must lie within one row.
+     */
+    public SeatRange reserve(int firstIndex, int count) {
+        int row = firstIndex / seatsPerRow;
+        int firstSeat = firstIndex % seatsPerRow;
+        for (int seat = firstSeat; seat < firstSeat + count; seat++) {
+            take(row, seat);
+        }
+        reindex(row);
+        return new SeatRange(rowOffset + row, firstSeat, count);
+    }
+
+    /**
+     * Marks a seat given by its label as taken. Labels from other sections or outside
+     * the section (or shard) geometry are ignored, as are seats that are already taken.
+     */
+    public void reserve(String label) {
+        if (!label.startsWith(section) || label.length() <= section.length()
+                || label.charAt(section.length()) != '-') {
+            return;
+        }
+        int index = seatNumberOf(label) - 1 - rowOffset * seatsPerRow;
+        if (index < 0 || index >= rows * seatsPerRow) {
+            return;
+        }
+        int row = index / seatsPerRow;
+        int seat = index % seatsPerRow;
+        if (isAvailable(row, seat)) {
+            take(row, seat);
+            reindex(row);
+        }
+    }
+
+    /**
+     * Returns a range handed out by {@link #reserve(int, int)} to the section. Seats outside the
+     * section (or shard) geometry and seats that are already available are ignored.
+     */
+    public void release(SeatRange range) {
+        int row = range.getRow() - rowOffset;
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        int end = Math.min(range.getStartSeat() + range.getCount(), seatsPerRow);
+        for (int seat = Math.max(range.getStartSeat(), 0); seat < end; seat++) {
+            if (!isAvailable(row, seat)) {
+                taken[row * wordsPerRow + (seat >>> 6)] &= ~(1L << seat);
+                availableCount++;
+            }
+        }
+        reindex(row);
+    }
+
+    private void take(int row, int seat) {
+        taken[row * wordsPerRow + (seat >>> 6)] |= 1L << seat;
+        availableCount--;
+    }
+
+    private FreeRunIndex index() {
+        if (freeRuns == null) {
+            freeRuns = new FreeRunIndex(rows);
+            for (int row = 0; row < rows; row++) {
+                freeRuns.update(row, longestRunInRow(row));
+            }
+        }
+        return freeRuns;
+    }
+
+    /**
+     * @return the first row at or after {@code fromRow} with at least {@code count} adjacent free seats, or -1
+     */
+    int nextRow(int fromRow, int count) {
+        return index().nextRow(fromRow, count);
+    }
+
+    private void reindex(int row) {
+        if (freeRuns != null) {
+            freeRuns.update(row, longestRunInRow(row));
+        }
+    }
+
+    private int longestRunInRow(int row) {
+        int longest = 0;
+        for (int start = nextFree(row, 0); start < seatsPerRow; ) {
+            int end = nextTaken(row, start);
+            longest = Math.max(longest, end - start);
+            start = nextFree(row, end);
+        }
+        return longest;
+    }
+
+    /**
+     * @return the first free seat at or after {@code from} in the row, or {@code seatsPerRow}
+     */
+    int nextFree(int row, int from) {
+        if (from >= seatsPerRow) {
+            return seatsPerRow;
+        }
+        int base = row * wordsPerRow;
+        int wordIndex = from >>> 6;
+        long word = ~taken[base + wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == wordsPerRow) {
+                return seatsPerRow;
+            }
+            word = ~taken[base + wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return the first taken seat at or after {@code from} in the row, or {@code seatsPerRow}
+     */
+    int nextTaken(int row, int from) {
+        if (from >= seatsPerRow) {
+            return seatsPerRow;
+        }
+        int base = row * wordsPerRow;
+        int wordIndex = from >>> 6;
+        long word = taken[base + wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == wordsPerRow) {
+                return seatsPerRow;
+            }
+            word = taken[base + wordIndex];
+        }
+        // Padding bits are set, so a scan that reaches the row end stops exactly at seatsPerRow
+        return Math.min((wordIndex << 6) + Long.numberOfTrailingZeros(word), seatsPerRow);
+    }
+
+    private static int seatNumberOf(String label) {
+        int lastDash = label.lastIndexOf('-');
+        if (lastDash < 0 || lastDash == label.length() - 1) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(label.substring(lastDash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
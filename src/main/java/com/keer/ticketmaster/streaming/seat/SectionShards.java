@@ -0,0 +1,66 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.SectionInitCommand;
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+import org.apache.kafka.streams.KeyValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a section's init command into per-shard commands so one hot section can be served by
+ * several partitions. Each shard gets a contiguous block of rows; seat labels stay global, so
+ * {@code initialReserved} is passed to every shard and each one keeps the labels in its rows.
+ */
+public final class SectionShards {
+
+    private SectionShards() {}
+
+    /**
+     * @return true for a section-level command asking for more than one shard; a section with a
+     *         single row (or a shard count of 1) is initialised unsharded
+     */
+    public static boolean needsSplit(SectionInitCommand command) {
+        return command.getShard() == null && shardCount(command) > 1;
+    }
+
+    /**
+     * @return one init command per shard, keyed {@code eventId-section#k}; never more shards than rows
+     */
+    public static List<KeyValue<String, SectionInitCommand>> split(SectionInitCommand command) {
+        int rows = command.getRows();
+        int shardCount = shardCount(command);
+        List<KeyValue<String, SectionInitCommand>> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int firstRow = rows * shard / shardCount;
+            int endRow = rows * (shard + 1) / shardCount;
+            SectionInitCommand shardCommand = SectionInitCommand.newBuilder(command)
+                    .setShard(shard)
+                    .setRowOffset(firstRow)
+                    .setRows(endRow - firstRow)
+                    .build();
+            shards.add(KeyValue.pair(
+                    SectionKeys.storeKey(command.getEventId(), command.getSection(), shard), shardCommand));
+        }
+        return shards;
+    }
+
+    /**
+     * The section-level {@code section-status} entry of a sharded section. Routers read only its
+     * shard count; availability is tracked per shard.
+     */
+    public static SectionStatusEvent directoryStatus(SectionInitCommand command) {
+        return SectionStatusEvent.newBuilder()
+                .setEventId(command.getEventId())
+                .setSection(command.getSection())
+                .setShardCount(shardCount(command))
+                .setAvailableCount(Math.max(0,
+                        command.getRows() * command.getSeatsPerRow() - command.getInitialReserved().size()))
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private static int shardCount(SectionInitCommand command) {
+        return Math.max(1, Math.min(command.getShardCount(), command.getRows()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.keer.ticketmaster.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommandPublisherTest {
+
+    private static final String TOPIC = KafkaConstants.TOPIC_RESERVATION_COMMANDS;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CommandPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new CommandPublisher(kafkaTemplate, meterRegistry, 2, 1_000);
+    }
+
+    @Test
+    void saturatedProducer_shouldRejectWithoutSending() {
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any())).thenReturn(pending);
+
+        publisher.send(TOPIC, "k1", "v");
+        publisher.send(TOPIC, "k2", "v");
+
+        assertThrows(ProducerSaturatedException.class, () -> publisher.send(TOPIC, "k3", "v"));
+        verify(kafkaTemplate, never()).send(TOPIC, "k3", "v");
+        assertEquals(1, meterRegistry.get("kafka.command.rejected").counter().count());
+    }
+
+    @Test
+    void completedSend_shouldReleaseItsSlot() {
+        CompletableFuture<SendResult<String, Object>> first = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, Object>> other = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, "k1", "v")).thenReturn(first);
+        when(kafkaTemplate.send(eq(TOPIC), argThat(k -> !"k1".equals(k)), any())).thenReturn(other);
+
+        publisher.send(TOPIC, "k1", "v");
+        publisher.send(TOPIC, "k2", "v");
+        first.complete(null);
+
+        assertDoesNotThrow(() -> publisher.send(TOPIC, "k3", "v"));
+        assertEquals(1, meterRegistry.get("kafka.command.send").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void acquiredSlots_shouldBeHeldUntilTheirRecordCompletes() {
+        CompletableFuture<SendResult<String, Object>> batch = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, "k1", "v")).thenReturn(batch);
+
+        publisher.acquire(TOPIC);
+        publisher.acquire(TOPIC);
+        assertThrows(ProducerSaturatedException.class, () -> publisher.acquire(TOPIC));
+
+        publisher.sendAcquired(TOPIC, "k1", "v", 2);
+        assertThrows(ProducerSaturatedException.class, () -> publisher.acquire(TOPIC));
+
+        batch.complete(null);
+        assertDoesNotThrow(() -> publisher.acquire(TOPIC));
+        assertDoesNotThrow(() -> publisher.acquire(TOPIC));
+    }
+
+    @Test
+    void failedSend_shouldReachTheCaller() {
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker down")));
+
+        CommandPublishException e = assertThrows(CommandPublishException.class,
+                () -> publisher.sendAndAwait(TOPIC, "k1", "v"));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(1, meterRegistry.get("kafka.command.send").tag("outcome", "failure").timer().count());
+    }
+}
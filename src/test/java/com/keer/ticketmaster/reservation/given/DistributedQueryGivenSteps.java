@@ -1,18 +1,21 @@
 package com.keer.ticketmaster.reservation.given;
 
 import com.keer.ticketmaster.ScenarioContext;
+import com.keer.ticketmaster.avro.AllocationStatus;
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.config.KafkaConstants;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
 import com.keer.ticketmaster.reservation.service.InteractiveQueryService;
+import com.keer.ticketmaster.reservation.service.ReservationRoutingTable;
 import io.cucumber.java.zh_tw.假如;
-import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.streams.KafkaStreams;
-import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StreamsMetadata;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.config.StreamsBuilderFactoryBean;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClient;
 
 import java.time.Instant;
@@ -38,8 +41,8 @@ public class DistributedQueryGivenSteps {
         when(factory1.getKafkaStreams()).thenReturn(kafkaStreams1);
         when(kafkaStreams1.state()).thenReturn(KafkaStreams.State.RUNNING);
 
-        InteractiveQueryService instance1 = new InteractiveQueryService(factory1, restClient1);
-        ReflectionTestUtils.setField(instance1, "applicationServer", "localhost:" + port1);
+        ReservationRoutingTable routingTable1 = new ReservationRoutingTable(factory1, "localhost:" + port1, 1);
+        InteractiveQueryService instance1 = new InteractiveQueryService(factory1, routingTable1, restClient1);
 
         // 建立 Instance 2 的 mock 依賴
         StreamsBuilderFactoryBean factory2 = mock(StreamsBuilderFactoryBean.class);
@@ -49,14 +52,16 @@ public class DistributedQueryGivenSteps {
         when(factory2.getKafkaStreams()).thenReturn(kafkaStreams2);
         when(kafkaStreams2.state()).thenReturn(KafkaStreams.State.RUNNING);
 
-        InteractiveQueryService instance2 = new InteractiveQueryService(factory2, restClient2);
-        ReflectionTestUtils.setField(instance2, "applicationServer", "localhost:" + port2);
+        ReservationRoutingTable routingTable2 = new ReservationRoutingTable(factory2, "localhost:" + port2, 1);
+        InteractiveQueryService instance2 = new InteractiveQueryService(factory2, routingTable2, restClient2);
 
         // 存入 ScenarioContext 供後續步驟使用
         scenarioContext.set("instance1", instance1);
         scenarioContext.set("instance2", instance2);
         scenarioContext.set("kafkaStreams1", kafkaStreams1);
         scenarioContext.set("kafkaStreams2", kafkaStreams2);
+        scenarioContext.set("routingTable1", routingTable1);
+        scenarioContext.set("routingTable2", routingTable2);
         scenarioContext.set("restClient2", restClient2);
         scenarioContext.set("port1", port1);
     }
@@ -65,6 +70,8 @@ public class DistributedQueryGivenSteps {
     @假如("^一筆預訂「(.+)」已寫入 reservation-completed topic，使用者為「(.+)」，狀態為「(.+)」，座位為「(.+)」$")
     public void 一筆預訂已寫入topic(String reservationId, String userId, String status, String seatsStr) {
         List<String> seats = Arrays.asList(seatsStr.split(","));
+        // Consecutive seats in one row, as the seat processor allocates them
+        int firstSeat = Integer.parseInt(seats.get(0).substring(seats.get(0).lastIndexOf('-') + 1)) - 1;
         int port1 = (int) scenarioContext.get("port1");
         long timestamp = Instant.now().toEpochMilli();
 
@@ -72,24 +79,27 @@ public class DistributedQueryGivenSteps {
         KafkaStreams kafkaStreams2 = (KafkaStreams) scenarioContext.get("kafkaStreams2");
         RestClient restClient2 = (RestClient) scenarioContext.get("restClient2");
 
-        // 預訂的 partition 歸屬於 instance1 — 兩個實例的 metadata 都指向 instance1
-        KeyQueryMetadata metadata = new KeyQueryMetadata(
-                new HostInfo("localhost", port1), Set.of(), 0);
+        // 預訂的 partition 歸屬於 instance1 — 兩個實例的 routing table 都指向 instance1
+        StreamsMetadata owner = mock(StreamsMetadata.class);
+        when(owner.hostInfo()).thenReturn(new HostInfo("localhost", port1));
+        when(owner.topicPartitions()).thenReturn(
+                Set.of(new TopicPartition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, 0)));
 
-        when(kafkaStreams1.queryMetadataForKey(anyString(), eq(reservationId), any(Serializer.class)))
-                .thenReturn(metadata);
-        when(kafkaStreams2.queryMetadataForKey(anyString(), eq(reservationId), any(Serializer.class)))
-                .thenReturn(metadata);
+        when(kafkaStreams1.streamsMetadataForStore(KafkaConstants.RESERVATION_QUERY_STORE)).thenReturn(List.of(owner));
+        when(kafkaStreams2.streamsMetadataForStore(KafkaConstants.RESERVATION_QUERY_STORE)).thenReturn(List.of(owner));
+        ((ReservationRoutingTable) scenarioContext.get("routingTable1")).onChange(KafkaStreams.State.RUNNING, KafkaStreams.State.REBALANCING);
+        ((ReservationRoutingTable) scenarioContext.get("routingTable2")).onChange(KafkaStreams.State.RUNNING, KafkaStreams.State.REBALANCING);
 
         // Instance 1 的本地 store 中有這筆預訂
         ReservationCompletedEvent event = ReservationCompletedEvent.newBuilder()
                 .setReservationId(reservationId)
                 .setEventId(1L)
                 .setUserId(userId)
-                .setStatus(status)
+                .setAllocationStatus(AllocationStatus.valueOf(status))
                 .setSection("A")
                 .setSeatCount(seats.size())
-                .setAllocatedSeats(seats)
+                .setSeatsPerRow(firstSeat + seats.size())
+                .setSeatRanges(List.of(new SeatRange(0, firstSeat, seats.size())))
                 .setTimestamp(timestamp)
                 .build();
 
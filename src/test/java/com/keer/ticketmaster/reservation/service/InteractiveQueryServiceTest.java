@@ -1,10 +1,15 @@
 package com.keer.ticketmaster.reservation.service;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.reservation.dto.ReservationBatchResponse;
 import com.keer.ticketmaster.reservation.dto.ReservationResponse;
-import org.apache.kafka.common.serialization.Serializer;
+import com.keer.ticketmaster.streaming.reservation.ReservationIds;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.streams.KafkaStreams;
-import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StreamsMetadata;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +18,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.kafka.config.StreamsBuilderFactoryBean;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClient;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,6 +46,8 @@ class InteractiveQueryServiceTest {
     @Mock
     private ReadOnlyKeyValueStore<String, ReservationCompletedEvent> store;
 
+    private ReservationRoutingTable routingTable;
+
     private InteractiveQueryService service;
 
     private static final String LOCAL_SERVER = "localhost:8080";
@@ -47,8 +55,8 @@ class InteractiveQueryServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new InteractiveQueryService(streamsBuilderFactoryBean, restClient);
-        ReflectionTestUtils.setField(service, "applicationServer", LOCAL_SERVER);
+        routingTable = new ReservationRoutingTable(streamsBuilderFactoryBean, LOCAL_SERVER, 2);
+        service = new InteractiveQueryService(streamsBuilderFactoryBean, routingTable, restClient);
     }
 
     private ReservationCompletedEvent buildCompletedEvent() {
@@ -56,25 +64,31 @@ class InteractiveQueryServiceTest {
                 .setReservationId(RESERVATION_ID)
                 .setEventId(1L)
                 .setUserId("user001")
-                .setStatus("CONFIRMED")
+                .setAllocationStatus(AllocationStatus.CONFIRMED)
                 .setSection("A")
                 .setSeatCount(2)
-                .setAllocatedSeats(List.of("A-001", "A-002"))
+                .setSeatsPerRow(10)
+                .setSeatRanges(List.of(new SeatRange(1, 0, 2)))
                 .setTimestamp(Instant.now().toEpochMilli())
                 .build();
     }
 
-    private void stubMetadata(KeyQueryMetadata metadata) {
-        when(kafkaStreams.queryMetadataForKey(anyString(), anyString(), any(Serializer.class)))
-                .thenReturn(metadata);
+    private void routeTo(HostInfo owner) {
+        StreamsMetadata metadata = mock(StreamsMetadata.class);
+        when(metadata.hostInfo()).thenReturn(owner);
+        when(metadata.topicPartitions()).thenReturn(Set.of(
+                new TopicPartition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, 0),
+                new TopicPartition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, 1)));
+        when(kafkaStreams.streamsMetadataForStore(KafkaConstants.RESERVATION_QUERY_STORE)).thenReturn(List.of(metadata));
+        routingTable.onChange(KafkaStreams.State.RUNNING, KafkaStreams.State.REBALANCING);
     }
 
-    private KeyQueryMetadata localMetadata() {
-        return new KeyQueryMetadata(new HostInfo("localhost", 8080), Set.of(), 0);
+    private HostInfo localHost() {
+        return new HostInfo("localhost", 8080);
     }
 
-    private KeyQueryMetadata remoteMetadata() {
-        return new KeyQueryMetadata(new HostInfo("remote-host", 9090), Set.of(), 0);
+    private HostInfo remoteHost() {
+        return new HostInfo("remote-host", 9090);
     }
 
     private void stubStreamsRunning() {
@@ -103,18 +117,18 @@ class InteractiveQueryServiceTest {
         }
 
         @Test
-        void shouldThrowStoreNotReadyWhenMetadataNotAvailable() {
+        void shouldThrowStoreNotReadyWhenRoutingTableIsEmpty() {
             stubStreamsRunning();
-            stubMetadata(KeyQueryMetadata.NOT_AVAILABLE);
 
             assertThrows(StoreNotReadyException.class,
                     () -> service.queryReservation(RESERVATION_ID));
         }
 
         @Test
-        void shouldThrowStoreNotReadyWhenMetadataIsNull() {
+        void shouldThrowStoreNotReadyWhenRoutingTableWasDropped() {
             stubStreamsRunning();
-            stubMetadata(null);
+            routeTo(localHost());
+            routingTable.onChange(KafkaStreams.State.REBALANCING, KafkaStreams.State.RUNNING);
 
             assertThrows(StoreNotReadyException.class,
                     () -> service.queryReservation(RESERVATION_ID));
@@ -123,7 +137,7 @@ class InteractiveQueryServiceTest {
         @Test
         void shouldQueryLocalStoreWhenHostIsLocal() {
             stubStreamsRunning();
-            stubMetadata(localMetadata());
+            routeTo(localHost());
             when(kafkaStreams.store(any())).thenReturn(store);
             when(store.get(RESERVATION_ID)).thenReturn(buildCompletedEvent());
 
@@ -134,13 +148,14 @@ class InteractiveQueryServiceTest {
             assertEquals("CONFIRMED", response.getStatus());
             assertEquals("A", response.getSection());
             assertEquals(2, response.getSeatCount());
-            assertEquals(List.of("A-001", "A-002"), response.getAllocatedSeats());
+            assertEquals(List.of("A-11", "A-12"), response.getAllocatedSeats());
+            assertEquals(10, response.getSeatsPerRow());
         }
 
         @Test
         void shouldReturnNullWhenLocalStoreHasNoEntry() {
             stubStreamsRunning();
-            stubMetadata(localMetadata());
+            routeTo(localHost());
             when(kafkaStreams.store(any())).thenReturn(store);
             when(store.get(RESERVATION_ID)).thenReturn(null);
 
@@ -153,7 +168,7 @@ class InteractiveQueryServiceTest {
         @Test
         void shouldQueryRemoteStoreWhenHostIsRemote() {
             stubStreamsRunning();
-            stubMetadata(remoteMetadata());
+            routeTo(remoteHost());
 
             ReservationResponse expected = ReservationResponse.builder()
                     .reservationId(RESERVATION_ID)
@@ -181,7 +196,7 @@ class InteractiveQueryServiceTest {
         @Test
         void shouldThrowRemoteQueryExceptionWhenRemoteFails() {
             stubStreamsRunning();
-            stubMetadata(remoteMetadata());
+            routeTo(remoteHost());
 
             var uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
             var headersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -196,6 +211,116 @@ class InteractiveQueryServiceTest {
         }
     }
 
+    @Nested
+    class QueryReservations {
+
+        private final String localId = ReservationIds.generate(0);
+        private final String localPendingId = ReservationIds.generate(0);
+        private final String remoteId = ReservationIds.generate(1);
+
+        private void routeLocalAndRemote() {
+            StreamsMetadata local = mock(StreamsMetadata.class);
+            when(local.hostInfo()).thenReturn(localHost());
+            when(local.topicPartitions()).thenReturn(
+                    Set.of(new TopicPartition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, 0)));
+            StreamsMetadata remote = mock(StreamsMetadata.class);
+            when(remote.hostInfo()).thenReturn(remoteHost());
+            when(remote.topicPartitions()).thenReturn(
+                    Set.of(new TopicPartition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, 1)));
+            when(kafkaStreams.streamsMetadataForStore(KafkaConstants.RESERVATION_QUERY_STORE))
+                    .thenReturn(List.of(local, remote));
+            routingTable.onChange(KafkaStreams.State.RUNNING, KafkaStreams.State.REBALANCING);
+        }
+
+        @SuppressWarnings("unchecked")
+        private RestClient.RequestBodySpec stubRemoteBatch() {
+            var uriSpec = mock(RestClient.RequestBodyUriSpec.class);
+            var bodySpec = mock(RestClient.RequestBodySpec.class);
+            doReturn(uriSpec).when(restClient).post();
+            doReturn(bodySpec).when(uriSpec).uri("http://remote-host:9090/internal/reservations/_batch");
+            doReturn(bodySpec).when(bodySpec).contentType(any());
+            doReturn(bodySpec).when(bodySpec).body(any(Object.class));
+            return bodySpec;
+        }
+
+        @Test
+        void shouldMergeLocalReadsWithOneCallPerRemoteHost() {
+            stubStreamsRunning();
+            routeLocalAndRemote();
+            when(kafkaStreams.store(any())).thenReturn(store);
+            ReservationCompletedEvent localEvent = buildCompletedEvent();
+            localEvent.setReservationId(localId);
+            when(store.get(localId)).thenReturn(localEvent);
+            when(store.get(localPendingId)).thenReturn(null);
+
+            var bodySpec = stubRemoteBatch();
+            var responseSpec = mock(RestClient.ResponseSpec.class);
+            doReturn(responseSpec).when(bodySpec).retrieve();
+            doReturn(List.of(ReservationResponse.builder().reservationId(remoteId).status("REJECTED").build()))
+                    .when(responseSpec).body(any(ParameterizedTypeReference.class));
+
+            ReservationBatchResponse response = service.queryReservations(List.of(localId, remoteId, localPendingId));
+
+            assertEquals(Set.of(localId, remoteId), response.getReservations().stream()
+                    .map(ReservationResponse::getReservationId).collect(Collectors.toSet()));
+            assertEquals(List.of(localPendingId), response.getPending());
+            assertEquals(List.of(), response.getUnavailable());
+            verify(bodySpec).body(List.of(remoteId));
+            verify(restClient, times(1)).post();
+        }
+
+        @Test
+        void unreachableHost_shouldMarkItsIdsUnavailable() {
+            when(streamsBuilderFactoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+            routeLocalAndRemote();
+
+            var bodySpec = stubRemoteBatch();
+            when(bodySpec.retrieve()).thenThrow(new RuntimeException("Connection refused"));
+
+            ReservationBatchResponse response = service.queryReservations(List.of(remoteId));
+
+            assertEquals(List.of(), response.getReservations());
+            assertEquals(List.of(), response.getPending());
+            assertEquals(List.of(remoteId), response.getUnavailable());
+        }
+
+        @Test
+        void localStoreNotReady_shouldMarkOnlyLocalIdsUnavailable() {
+            when(streamsBuilderFactoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+            routeLocalAndRemote();
+            when(kafkaStreams.state()).thenReturn(KafkaStreams.State.REBALANCING);
+
+            var bodySpec = stubRemoteBatch();
+            var responseSpec = mock(RestClient.ResponseSpec.class);
+            doReturn(responseSpec).when(bodySpec).retrieve();
+            doReturn(List.of(ReservationResponse.builder().reservationId(remoteId).status("REJECTED").build()))
+                    .when(responseSpec).body(any(ParameterizedTypeReference.class));
+
+            ReservationBatchResponse response = service.queryReservations(List.of(localId, remoteId));
+
+            assertEquals(List.of(remoteId), response.getReservations().stream()
+                    .map(ReservationResponse::getReservationId).toList());
+            assertEquals(List.of(), response.getPending());
+            assertEquals(List.of(localId), response.getUnavailable());
+        }
+
+        @Test
+        void remoteOnlyBatch_shouldNotNeedLocalStreams() {
+            when(streamsBuilderFactoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+            routeLocalAndRemote();
+
+            var bodySpec = stubRemoteBatch();
+            var responseSpec = mock(RestClient.ResponseSpec.class);
+            doReturn(responseSpec).when(bodySpec).retrieve();
+            doReturn(List.of()).when(responseSpec).body(any(ParameterizedTypeReference.class));
+
+            ReservationBatchResponse response = service.queryReservations(List.of(remoteId));
+
+            assertEquals(List.of(remoteId), response.getPending());
+            verify(kafkaStreams, never()).state();
+        }
+    }
+
     @Nested
     class QueryLocalStore {
 
@@ -222,7 +347,7 @@ class InteractiveQueryServiceTest {
             assertEquals("CONFIRMED", response.getStatus());
             assertEquals("A", response.getSection());
             assertEquals(2, response.getSeatCount());
-            assertEquals(List.of("A-001", "A-002"), response.getAllocatedSeats());
+            assertEquals(List.of("A-11", "A-12"), response.getAllocatedSeats());
             assertNotNull(response.getCreatedAt());
         }
     }
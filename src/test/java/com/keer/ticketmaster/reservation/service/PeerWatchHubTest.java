@@ -0,0 +1,89 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PeerWatchHubTest {
+
+    private static final String PEER = "api-1:8080";
+
+    @Mock
+    private ReservationService reservationService;
+
+    private PeerWatchHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new PeerWatchHub(reservationService);
+    }
+
+    @Test
+    void watch_shouldWaitLocallyForEveryId() {
+        hub.watch(PEER, List.of("r1", "r2"));
+
+        verify(reservationService).waitLocally(eq("r1"), any());
+        verify(reservationService).waitLocally(eq("r2"), any());
+    }
+
+    @Test
+    void resultWithoutOpenStream_shouldBeDropped() {
+        doAnswer(inv -> {
+            DeferredResult<ResponseEntity<ReservationResponse>> deferred = inv.getArgument(1);
+            deferred.setResult(ResponseEntity.ok(ReservationResponse.builder().reservationId("r1").build()));
+            return null;
+        }).when(reservationService).waitLocally(eq("r1"), any());
+
+        // The peer re-registers r1 once its stream is up
+        assertDoesNotThrow(() -> hub.watch(PEER, List.of("r1")));
+    }
+
+    @Test
+    void channel_shouldBeDroppedOnceItsWatchesAreAnswered() {
+        AtomicReference<DeferredResult<ResponseEntity<ReservationResponse>>> parked = new AtomicReference<>();
+        doAnswer(inv -> {
+            parked.set(inv.getArgument(1));
+            return null;
+        }).when(reservationService).waitLocally(eq("r1"), any());
+
+        hub.watch(PEER, List.of("r1"));
+        assertEquals(1, hub.channelCount());
+
+        parked.get().setResult(ResponseEntity.accepted().build());
+        assertEquals(0, hub.channelCount());
+    }
+
+    @Test
+    void rejectedWatch_shouldReleaseChannel() {
+        doAnswer(inv -> {
+            DeferredResult<ResponseEntity<ReservationResponse>> deferred = inv.getArgument(1);
+            deferred.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+            return null;
+        }).when(reservationService).waitLocally(eq("r1"), any());
+
+        hub.watch(PEER, List.of("r1"));
+
+        assertEquals(0, hub.channelCount());
+    }
+
+    @Test
+    void openStream_shouldKeepChannelWithoutWatches() {
+        hub.open(PEER);
+
+        assertEquals(1, hub.channelCount());
+    }
+}
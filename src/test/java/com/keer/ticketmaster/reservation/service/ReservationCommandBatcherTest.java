@@ -0,0 +1,110 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCommandBatch;
+import com.keer.ticketmaster.config.CommandPublishException;
+import com.keer.ticketmaster.config.CommandPublisher;
+import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.config.ProducerSaturatedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationCommandBatcherTest {
+
+    private static final String TOPIC = KafkaConstants.TOPIC_RESERVATION_COMMAND_BATCHES;
+    private static final String INSTANCE = "api-1:8080";
+
+    @Mock
+    private CommandPublisher commandPublisher;
+
+    @Test
+    void zeroWindow_shouldDisableEnvelopes() {
+        assertFalse(new ReservationCommandBatcher(commandPublisher, INSTANCE, 0, 64).isEnabled());
+    }
+
+    @Test
+    void fullBatch_shouldBeSentAsOneRecordKeyedBySectionAndInstance() {
+        CompletableFuture<SendResult<String, Object>> sent = new CompletableFuture<>();
+        when(commandPublisher.sendAcquired(eq(TOPIC), startsWith("1-A/" + INSTANCE + "/"), any(), eq(3))).thenReturn(sent);
+        // Window far longer than the test: only the size limit can flush
+        ReservationCommandBatcher batcher = new ReservationCommandBatcher(commandPublisher, INSTANCE, 60_000_000, 3);
+
+        CompletableFuture<Void> first = batcher.submit(command("r1", "A"));
+        CompletableFuture<Void> second = batcher.submit(command("r2", "A"));
+        CompletableFuture<Void> third = batcher.submit(command("r3", "A"));
+
+        ArgumentCaptor<Object> record = ArgumentCaptor.forClass(Object.class);
+        verify(commandPublisher, times(3)).acquire(TOPIC);
+        verify(commandPublisher).sendAcquired(eq(TOPIC), startsWith("1-A/" + INSTANCE + "/"), record.capture(), eq(3));
+        ReservationCommandBatch batch = (ReservationCommandBatch) record.getValue();
+        assertEquals(List.of("r1", "r2", "r3"),
+                batch.getCommands().stream().map(ReservationCommand::getReservationId).toList());
+        assertFalse(first.isDone(), "acknowledged only with the batch");
+
+        sent.complete(null);
+        assertTrue(first.isDone() && second.isDone() && third.isDone());
+    }
+
+    @Test
+    void window_shouldFlushEachSectionSeparately() throws Exception {
+        when(commandPublisher.sendAcquired(eq(TOPIC), anyString(), any(), eq(1)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        ReservationCommandBatcher batcher = new ReservationCommandBatcher(commandPublisher, INSTANCE, 500, 64);
+
+        CompletableFuture<Void> a = batcher.submit(command("r1", "A"));
+        CompletableFuture<Void> b = batcher.submit(command("r2", "B"));
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+
+        verify(commandPublisher).sendAcquired(eq(TOPIC), startsWith("1-A/" + INSTANCE + "/"), any(), eq(1));
+        verify(commandPublisher).sendAcquired(eq(TOPIC), startsWith("1-B/" + INSTANCE + "/"), any(), eq(1));
+    }
+
+    @Test
+    void saturatedPublisher_shouldRefuseTheCommandItself() {
+        doThrow(new ProducerSaturatedException("Too many commands in flight")).when(commandPublisher).acquire(TOPIC);
+        ReservationCommandBatcher batcher = new ReservationCommandBatcher(commandPublisher, INSTANCE, 60_000_000, 1);
+
+        assertThrows(ProducerSaturatedException.class, () -> batcher.submit(command("r1", "A")));
+        verify(commandPublisher, never()).sendAcquired(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void failedBatch_shouldFailEveryCommandInIt() {
+        when(commandPublisher.sendAcquired(eq(TOPIC), anyString(), any(), eq(2)))
+                .thenThrow(new CommandPublishException("Failed to send", new RuntimeException("broker down")));
+        ReservationCommandBatcher batcher = new ReservationCommandBatcher(commandPublisher, INSTANCE, 60_000_000, 2);
+
+        CompletableFuture<Void> first = batcher.submit(command("r1", "A"));
+        CompletableFuture<Void> second = batcher.submit(command("r2", "A"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, first::get);
+        assertInstanceOf(CommandPublishException.class, e.getCause());
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+    private static ReservationCommand command(String reservationId, String section) {
+        return ReservationCommand.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(1L)
+                .setSection(section)
+                .setSeatCount(2)
+                .setUserId("user001")
+                .setTimestamp(1000L)
+                .build();
+    }
+}
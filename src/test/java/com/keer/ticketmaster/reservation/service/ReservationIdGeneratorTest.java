@@ -0,0 +1,50 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.streaming.reservation.ReservationIds;
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationIdGeneratorTest {
+
+    @Mock
+    private ReservationRoutingTable routingTable;
+
+    @Test
+    void ids_shouldOnlyUsePartitionsHostedLocally() {
+        when(routingTable.snapshot()).thenReturn(
+                new ReservationRoutingTable.Snapshot(new HostInfo[4], new int[]{1, 3}, Instant.now()));
+        ReservationIdGenerator generator = generator(4);
+
+        for (int i = 0; i < 100; i++) {
+            int partition = ReservationIds.partitionOf(generator.next());
+            assertTrue(partition == 1 || partition == 3, "partition " + partition);
+        }
+    }
+
+    @Test
+    void unknownRouting_shouldSpreadOverAllPartitions() {
+        when(routingTable.snapshot()).thenReturn(ReservationRoutingTable.Snapshot.EMPTY);
+        ReservationIdGenerator generator = generator(4);
+
+        for (int i = 0; i < 100; i++) {
+            int partition = ReservationIds.partitionOf(generator.next());
+            assertTrue(partition >= 0 && partition < 4, "partition " + partition);
+        }
+    }
+
+    private ReservationIdGenerator generator(int partitions) {
+        ReservationIdGenerator generator = new ReservationIdGenerator(routingTable);
+        ReflectionTestUtils.setField(generator, "partitions", partitions);
+        return generator;
+    }
+}
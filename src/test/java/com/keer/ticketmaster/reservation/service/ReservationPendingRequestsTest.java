@@ -0,0 +1,131 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.reservation.dto.ReservationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationPendingRequestsTest {
+
+    private static final long TIMEOUT_MS = 1_000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservationPendingRequests pending;
+    private long start;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        start = System.currentTimeMillis();
+        pending = new ReservationPendingRequests(meterRegistry, TIMEOUT_MS, 2, start);
+    }
+
+    @Test
+    void resolve_shouldAnswerParkedPoll() {
+        DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>();
+        assertTrue(pending.register("r1", deferred));
+
+        pending.resolve(completed("r1"));
+
+        ResponseEntity<?> result = (ResponseEntity<?>) deferred.getResult();
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("r1", ((ReservationResponse) result.getBody()).getReservationId());
+        assertEquals(0, pending.size());
+        assertEquals(1, count("resolved"));
+    }
+
+    @Test
+    void unresolvedPoll_shouldExpireWhenItsSlotComesUp() {
+        DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>();
+        pending.register("r1", deferred);
+
+        pending.advance(start + TIMEOUT_MS - ReservationPendingRequests.TICK_MS);
+        assertFalse(deferred.hasResult(), "not due yet");
+
+        pending.advance(System.currentTimeMillis() + TIMEOUT_MS + 2 * ReservationPendingRequests.TICK_MS);
+        assertEquals(HttpStatus.ACCEPTED, ((ResponseEntity<?>) deferred.getResult()).getStatusCode());
+        assertEquals(0, pending.size());
+        assertEquals(1, count("expired"));
+    }
+
+    @Test
+    void resolvedPoll_shouldNotCountAsExpired() {
+        DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>();
+        pending.register("r1", deferred);
+        pending.resolve(completed("r1"));
+
+        pending.advance(System.currentTimeMillis() + 2 * TIMEOUT_MS);
+
+        assertEquals(HttpStatus.OK, ((ResponseEntity<?>) deferred.getResult()).getStatusCode());
+        assertEquals(0, count("expired"));
+    }
+
+    @Test
+    void fullRegistry_shouldRejectWithoutParking() {
+        assertTrue(pending.register("r1", new DeferredResult<>()));
+        assertTrue(pending.register("r2", new DeferredResult<>()));
+
+        assertFalse(pending.register("r3", new DeferredResult<>()));
+        assertEquals(2, pending.size());
+        assertEquals(1, count("rejected"));
+
+        pending.resolve(completed("r1"));
+        assertTrue(pending.register("r3", new DeferredResult<>()));
+    }
+
+    @Test
+    void unregister_shouldFreeSlotWithoutAnswering() {
+        DeferredResult<ResponseEntity<ReservationResponse>> deferred = new DeferredResult<>();
+        pending.register("r1", deferred);
+
+        pending.unregister("r1");
+        pending.resolve(completed("r1"));
+        pending.advance(System.currentTimeMillis() + 2 * TIMEOUT_MS);
+
+        assertFalse(deferred.hasResult());
+        assertEquals(0, pending.size());
+        assertEquals(0, count("expired"));
+    }
+
+    @Test
+    void supersededPoll_shouldStillBeAnsweredOnExpiry() {
+        DeferredResult<ResponseEntity<ReservationResponse>> first = new DeferredResult<>();
+        DeferredResult<ResponseEntity<ReservationResponse>> second = new DeferredResult<>();
+        pending.register("r1", first);
+        pending.register("r1", second);
+        assertEquals(1, pending.size());
+
+        pending.resolve(completed("r1"));
+        assertEquals(HttpStatus.OK, ((ResponseEntity<?>) second.getResult()).getStatusCode());
+        assertFalse(first.hasResult());
+
+        pending.advance(System.currentTimeMillis() + 2 * TIMEOUT_MS);
+        assertEquals(HttpStatus.ACCEPTED, ((ResponseEntity<?>) first.getResult()).getStatusCode());
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("reservation.pending.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static ReservationCompletedEvent completed(String reservationId) {
+        return ReservationCompletedEvent.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(1L)
+                .setUserId("user001")
+                .setAllocationStatus(AllocationStatus.CONFIRMED)
+                .setSection("A")
+                .setSeatCount(1)
+                .setSeatRanges(List.of())
+                .setTimestamp(1000L)
+                .build();
+    }
+}
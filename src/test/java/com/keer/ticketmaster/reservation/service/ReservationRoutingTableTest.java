@@ -0,0 +1,95 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.streaming.reservation.ReservationIds;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationRoutingTableTest {
+
+    private static final HostInfo LOCAL = new HostInfo("localhost", 8080);
+    private static final HostInfo REMOTE = new HostInfo("remote-host", 9090);
+
+    @Mock
+    private StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Mock
+    private KafkaStreams kafkaStreams;
+
+    private ReservationRoutingTable routingTable;
+
+    @BeforeEach
+    void setUp() {
+        routingTable = new ReservationRoutingTable(streamsBuilderFactoryBean, "localhost:8080", 4);
+    }
+
+    @Test
+    void shouldRegisterAsStateListener() {
+        verify(streamsBuilderFactoryBean).setStateListener(routingTable);
+    }
+
+    @Test
+    void encodedId_shouldRouteToOwnerOfItsPartition() {
+        assignPartitions(client(LOCAL, 0, 2), client(REMOTE, 1, 3));
+
+        assertEquals(REMOTE, routingTable.ownerOf(ReservationIds.generate(3)));
+        assertEquals(LOCAL, routingTable.ownerOf(ReservationIds.generate(2)));
+        assertTrue(routingTable.isLocal(routingTable.ownerOf(ReservationIds.generate(0))));
+        assertFalse(routingTable.isLocal(routingTable.ownerOf(ReservationIds.generate(1))));
+        assertEquals(4, routingTable.snapshot().owners().length);
+        assertArrayEquals(new int[]{0, 2}, routingTable.snapshot().localPartitions());
+    }
+
+    @Test
+    void unassignedTopPartitions_shouldNotShrinkTable() {
+        assignPartitions(client(LOCAL, 0), client(REMOTE, 1));
+
+        assertEquals(4, routingTable.snapshot().owners().length);
+        assertNull(routingTable.ownerOf(ReservationIds.generate(3)));
+        assertEquals(REMOTE, routingTable.ownerOf(ReservationIds.generate(1)));
+    }
+
+    @Test
+    void tableShouldBeEmptyUntilRunningAndAfterLeavingIt() {
+        assertNull(routingTable.ownerOf(ReservationIds.generate(0)));
+
+        assignPartitions(client(LOCAL, 0));
+        assertEquals(LOCAL, routingTable.ownerOf(ReservationIds.generate(0)));
+
+        routingTable.onChange(KafkaStreams.State.REBALANCING, KafkaStreams.State.RUNNING);
+        assertNull(routingTable.ownerOf(ReservationIds.generate(0)));
+    }
+
+    private void assignPartitions(StreamsMetadata... clients) {
+        when(streamsBuilderFactoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+        when(kafkaStreams.streamsMetadataForStore(KafkaConstants.RESERVATION_QUERY_STORE)).thenReturn(List.of(clients));
+        routingTable.onChange(KafkaStreams.State.RUNNING, KafkaStreams.State.REBALANCING);
+    }
+
+    private static StreamsMetadata client(HostInfo host, int... partitions) {
+        StreamsMetadata metadata = mock(StreamsMetadata.class);
+        when(metadata.hostInfo()).thenReturn(host);
+        Set<TopicPartition> owned = new HashSet<>();
+        for (int partition : partitions) {
+            owned.add(new TopicPartition(KafkaConstants.TOPIC_RESERVATION_COMPLETED, partition));
+        }
+        when(metadata.topicPartitions()).thenReturn(owned);
+        return metadata;
+    }
+}
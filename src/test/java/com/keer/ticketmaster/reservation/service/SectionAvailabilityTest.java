@@ -0,0 +1,63 @@
+package com.keer.ticketmaster.reservation.service;
+
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+import com.keer.ticketmaster.config.KafkaConstants;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionAvailabilityTest {
+
+    private final SectionAvailability availability = new SectionAvailability();
+
+    @Test
+    void unknownSection_shouldNotBeSoldOut() {
+        assertFalse(availability.isSoldOut(1L, "A"));
+    }
+
+    @Test
+    void section_shouldFollowLatestStatus() {
+        receive("1-A", status(1, 0));
+        assertTrue(availability.isSoldOut(1L, "A"));
+
+        // Section re-initialised
+        receive("1-A", status(1, 100));
+        assertFalse(availability.isSoldOut(1L, "A"));
+    }
+
+    @Test
+    void shardedSection_shouldOnlyBeSoldOutWhenEveryShardIs() {
+        receive("1-A", status(2, 200));
+        receive("1-A#0", status(1, 0));
+        assertFalse(availability.isSoldOut(1L, "A"), "shard 1 not seen yet");
+
+        receive("1-A#1", status(1, 3));
+        assertFalse(availability.isSoldOut(1L, "A"));
+
+        receive("1-A#1", status(1, 0));
+        assertTrue(availability.isSoldOut(1L, "A"));
+    }
+
+    @Test
+    void tombstone_shouldForgetSection() {
+        receive("1-A", status(1, 0));
+        receive("1-A", null);
+
+        assertFalse(availability.isSoldOut(1L, "A"));
+    }
+
+    private void receive(String key, SectionStatusEvent status) {
+        availability.onStatus(new ConsumerRecord<>(KafkaConstants.TOPIC_SECTION_STATUS, 0, 0L, key, status));
+    }
+
+    private static SectionStatusEvent status(int shardCount, int availableCount) {
+        return SectionStatusEvent.newBuilder()
+                .setEventId(1L)
+                .setSection("A")
+                .setShardCount(shardCount)
+                .setAvailableCount(availableCount)
+                .setTimestamp(1000L)
+                .build();
+    }
+}
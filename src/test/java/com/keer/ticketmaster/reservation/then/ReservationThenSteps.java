@@ -70,6 +70,20 @@ public class ReservationThenSteps {
         this.lastReservationResponse = response;
     }
 
+    @並且("^回應中的預定狀態應為「(.+)」$")
+    public void 回應中的預定狀態應為(String expectedStatus) throws Exception {
+        MvcResult result = scenarioContext.getLastResponse();
+        if (result.getResponse().getStatus() != 200) {
+            // Streams not caught up within the wait: fall back to the GET long-poll
+            等待預定處理完成後狀態應為(expectedStatus);
+            return;
+        }
+        ReservationResponse response = objectMapper.readValue(
+                result.getResponse().getContentAsString(), ReservationResponse.class);
+        assertEquals(expectedStatus, response.getStatus(), "預定狀態應為 " + expectedStatus);
+        this.lastReservationResponse = response;
+    }
+
     @並且("^預定應包含 (\\d+) 個「(.+)」區的連續座位$")
     public void 預定應包含連續座位(int expectedCount, String expectedSection) {
         assertNotNull(lastReservationResponse, "應該先取得預定資訊");
@@ -11,6 +11,7 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Map;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 public class ReservationWhenSteps {
@@ -44,4 +45,29 @@ public class ReservationWhenSteps {
                 objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class));
         scenarioContext.set("reservationId", responseMap.get("reservationId"));
     }
+
+    @當("^使用者「(.+)」預訂活動的「(.+)」區 (\\d+) 個連續座位並等待結果$")
+    public void 使用者預訂連續座位並等待結果(String userId, String section, int seatCount) throws Exception {
+        Long eventId = (Long) scenarioContext.get("createdEventId");
+
+        ReservationRequest request = new ReservationRequest(eventId, section, seatCount, userId);
+
+        MvcResult asyncResult = mockMvc.perform(
+                post("/api/reservations")
+                        .param("wait", "10s")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        MvcResult result = asyncResult.getRequest().isAsyncStarted()
+                ? mockMvc.perform(asyncDispatch(asyncResult)).andReturn()
+                : asyncResult;
+
+        scenarioContext.setLastResponse(result);
+
+        // 200 carries the reservation itself, 202 only its id (not done within the wait)
+        String responseBody = result.getResponse().getContentAsString();
+        Map<String, Object> responseMap = objectMapper.readValue(responseBody,
+                objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
+        scenarioContext.set("reservationId", responseMap.get("reservationId"));
+    }
 }
@@ -0,0 +1,136 @@
+package com.keer.ticketmaster.streaming;
+
+import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.SectionSeatState;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinnedAvroSerdeTest {
+
+    private static final String TOPIC = "seat-allocation-requests";
+
+    private final PinnedAvroSerde<ReservationCommand> serde =
+            new PinnedAvroSerde<>(ReservationCommand.getClassSchema(), null);
+
+    @Test
+    void roundTrip_shouldRestoreRecord() {
+        ReservationCommand first = command("r-1", 2);
+        ReservationCommand second = command("r-2", 4);
+
+        byte[] firstBytes = serde.serializer().serialize(TOPIC, first);
+        byte[] secondBytes = serde.serializer().serialize(TOPIC, second);
+
+        assertEquals(1, firstBytes[0]);
+        assertEquals(first, serde.deserializer().deserialize(TOPIC, firstBytes));
+        assertEquals(second, serde.deserializer().deserialize(TOPIC, secondBytes));
+    }
+
+    @Test
+    void nullValue_shouldStayNull() {
+        assertNull(serde.serializer().serialize(TOPIC, null));
+        assertNull(serde.deserializer().deserialize(TOPIC, null));
+    }
+
+    @Test
+    void registryFramedRecord_shouldBeReadThroughFallback() {
+        SpecificAvroSerde<ReservationCommand> registrySerde = new SpecificAvroSerde<>(new MockSchemaRegistryClient());
+        registrySerde.configure(Map.of("schema.registry.url", "mock://test"), false);
+        PinnedAvroSerde<ReservationCommand> migrating =
+                new PinnedAvroSerde<>(ReservationCommand.getClassSchema(), registrySerde.deserializer());
+        ReservationCommand command = command("r-1", 2);
+
+        byte[] registryBytes = registrySerde.serializer().serialize(TOPIC, command);
+
+        assertEquals(command, migrating.deserializer().deserialize(TOPIC, registryBytes));
+    }
+
+    @Test
+    void internal_shouldPickSerdeByMode() {
+        SpecificAvroSerde<ReservationCommand> registrySerde = new SpecificAvroSerde<>(new MockSchemaRegistryClient());
+        registrySerde.configure(Map.of("schema.registry.url", "mock://test"), false);
+        ReservationCommand command = command("r-1", 2);
+
+        assertSame(registrySerde, PinnedAvroSerde.internal("registry", registrySerde, ReservationCommand.getClassSchema()));
+
+        var pinned = PinnedAvroSerde.internal("pinned", registrySerde, ReservationCommand.getClassSchema());
+        assertEquals(1, pinned.serializer().serialize(TOPIC, command)[0]);
+        assertEquals(command, pinned.deserializer().deserialize(TOPIC, registrySerde.serializer().serialize(TOPIC, command)));
+    }
+
+    @Test
+    void registryFramedRecord_withoutFallback_shouldBeRejected() {
+        byte[] registryBytes = {0, 0, 0, 0, 1, 2};
+
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, registryBytes));
+    }
+
+    @Test
+    void unknownWriterSchema_shouldBeRejected() {
+        byte[] bytes = serde.serializer().serialize(TOPIC, command("r-1", 2));
+        bytes[1] ^= 0x7f;
+
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, bytes));
+    }
+
+    @Test
+    void earlierSchema_shouldBeResolvedToCurrent() throws Exception {
+        Schema earlier = new Schema.Parser().parse("""
+                {"type": "record", "name": "SectionSeatState", "namespace": "com.keer.ticketmaster.avro",
+                 "fields": [
+                   {"name": "eventId", "type": "long"},
+                   {"name": "section", "type": "string"},
+                   {"name": "availableCount", "type": "int"}
+                 ]}
+                """);
+        GenericRecord old = new GenericData.Record(earlier);
+        old.put("eventId", 7L);
+        old.put("section", "A");
+        old.put("availableCount", 12);
+
+        PinnedAvroSerde<SectionSeatState> stateSerde =
+                new PinnedAvroSerde<>(SectionSeatState.getClassSchema(), null, earlier);
+        SectionSeatState state = stateSerde.deserializer().deserialize("changelog", pinned(earlier, old));
+
+        assertEquals(7L, state.getEventId());
+        assertEquals("A", state.getSection().toString());
+        assertEquals(12, state.getAvailableCount());
+        assertEquals(0, state.getRowOffset());
+        assertEquals("FIRST_FIT", state.getAllocationStrategy().toString());
+    }
+
+    private static byte[] pinned(Schema writerSchema, GenericRecord record) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(1);
+        out.write(ByteBuffer.allocate(Long.BYTES).putLong(SchemaNormalization.parsingFingerprint64(writerSchema)).array());
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericRecord>(writerSchema).write(record, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    private static ReservationCommand command(String reservationId, int seatCount) {
+        return ReservationCommand.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(1L)
+                .setUserId("user-1")
+                .setSection("A")
+                .setSeatCount(seatCount)
+                .setTimestamp(1000L)
+                .build();
+    }
+}
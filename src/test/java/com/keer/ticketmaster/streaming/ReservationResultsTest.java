@@ -0,0 +1,166 @@
+package com.keer.ticketmaster.streaming;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.streaming.seat.SeatLabels;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationResultsTest {
+
+    private static final Schema CURRENT = ReservationCompletedEvent.getClassSchema();
+
+    @Test
+    void schema_shouldStayCompatibleWithV1BothWays() throws IOException {
+        Schema v1 = v1Schema();
+
+        assertEquals(SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE,
+                SchemaCompatibility.checkReaderWriterCompatibility(CURRENT, v1).getType());
+        assertEquals(SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE,
+                SchemaCompatibility.checkReaderWriterCompatibility(v1, CURRENT).getType());
+    }
+
+    @Test
+    void v1Record_shouldBeUpgraded() throws IOException {
+        Schema v1 = v1Schema();
+        GenericRecord old = v1Record();
+
+        ReservationCompletedEvent event = ReservationResults.upgrade(
+                read(new SpecificDatumReader<>(v1, CURRENT), write(new GenericDatumWriter<>(v1), old)));
+
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(List.of("A-3", "A-4"), SeatLabels.of(event));
+    }
+
+    @Test
+    void publishedResult_shouldBeReadableAsV1() throws IOException {
+        ReservationCompletedEvent event = ReservationCompletedEvent.newBuilder()
+                .setReservationId("r1")
+                .setEventId(1L)
+                .setUserId("user1")
+                .setAllocationStatus(AllocationStatus.HELD)
+                .setSection("A")
+                .setSeatCount(2)
+                .setSeatsPerRow(10)
+                .setSeatRanges(List.of(new SeatRange(1, 0, 2)))
+                .setTimestamp(1000L)
+                .build();
+
+        ReservationResults.withLegacyFields(event);
+        GenericRecord old = read(new GenericDatumReader<>(CURRENT, v1Schema()),
+                write(new SpecificDatumWriter<>(CURRENT), event));
+
+        assertEquals("HELD", old.get("status").toString());
+        assertEquals(List.of("A-11", "A-12"), ((List<?>) old.get("allocatedSeats")).stream().map(Object::toString).toList());
+    }
+
+    @Test
+    void resultWithoutLegacyFields_shouldStayCompact() throws IOException {
+        ReservationCompletedEvent event = ReservationCompletedEvent.newBuilder()
+                .setReservationId("r1")
+                .setEventId(1L)
+                .setUserId("user1")
+                .setAllocationStatus(AllocationStatus.CONFIRMED)
+                .setSection("A")
+                .setSeatCount(20)
+                .setSeatsPerRow(10)
+                .setSeatRanges(List.of(new SeatRange(0, 0, 10), new SeatRange(1, 0, 10)))
+                .setTimestamp(1000L)
+                .build();
+        ReservationResults.upgrade(event);
+
+        assertEquals("", event.getStatus());
+        assertTrue(event.getAllocatedSeats().isEmpty());
+        int compact = write(new SpecificDatumWriter<>(CURRENT), event).length;
+        assertTrue(compact < write(new SpecificDatumWriter<>(CURRENT), ReservationResults.withLegacyFields(event)).length);
+    }
+
+    @Test
+    void pinnedV1Record_shouldBeReadableByTopologySerde() throws IOException {
+        GenericRecord old = v1Record();
+        byte[] body = write(new GenericDatumWriter<>(v1Schema()), old);
+        byte[] pinned = ByteBuffer.allocate(1 + Long.BYTES + body.length)
+                .put((byte) 1)
+                .putLong(SchemaNormalization.parsingFingerprint64(v1Schema()))
+                .put(body)
+                .array();
+
+        PinnedAvroSerde<ReservationCompletedEvent> serde =
+                new PinnedAvroSerde<>(CURRENT, null, ReservationResults.v1Schema());
+        ReservationCompletedEvent event = serde.deserializer().deserialize("seat-allocation-results", pinned);
+
+        assertEquals("r1", event.getReservationId());
+        assertEquals(AllocationStatus.CONFIRMED, ReservationResults.upgrade(event).getAllocationStatus());
+    }
+
+    @Test
+    void unknownStatusSymbol_shouldReadAsUnknown() throws IOException {
+        Schema newer = new Schema.Parser().parse(CURRENT.toString().replace("\"CANCELLED\"]", "\"CANCELLED\", \"REFUNDED\"]"));
+        GenericRecord record = new GenericData.Record(newer);
+        for (Schema.Field field : newer.getFields()) {
+            if (field.hasDefaultValue()) {
+                record.put(field.name(), GenericData.get().getDefaultValue(field));
+            }
+        }
+        record.put("reservationId", "r1");
+        record.put("eventId", 1L);
+        record.put("userId", "user1");
+        record.put("timestamp", 1000L);
+        record.put("allocationStatus", new GenericData.EnumSymbol(newer.getField("allocationStatus").schema(), "REFUNDED"));
+
+        ReservationCompletedEvent event = read(new SpecificDatumReader<>(newer, CURRENT),
+                write(new GenericDatumWriter<>(newer), record));
+
+        assertEquals(AllocationStatus.UNKNOWN, event.getAllocationStatus());
+    }
+
+    private static GenericRecord v1Record() {
+        GenericRecord old = new GenericData.Record(v1Schema());
+        old.put("reservationId", "r1");
+        old.put("eventId", 1L);
+        old.put("userId", "user1");
+        old.put("status", "CONFIRMED");
+        old.put("section", "A");
+        old.put("seatCount", 2);
+        old.put("allocatedSeats", List.of("A-3", "A-4"));
+        old.put("timestamp", 1000L);
+        return old;
+    }
+
+    private static Schema v1Schema() {
+        return ReservationResults.v1Schema();
+    }
+
+    private static <T> byte[] write(DatumWriter<T> writer, T record) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        writer.write(record, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    private static <T> T read(DatumReader<T> reader, byte[] bytes) throws IOException {
+        return reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+    }
+}
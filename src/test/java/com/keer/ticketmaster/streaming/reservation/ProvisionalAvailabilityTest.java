@@ -0,0 +1,105 @@
+package com.keer.ticketmaster.streaming.reservation;
+
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProvisionalAvailabilityTest {
+
+    private final ProvisionalAvailability provisional = new ProvisionalAvailability(1000, 1);
+
+    @Test
+    void admittedCommands_shouldCountAgainstUnchangedStatus() {
+        SectionStatusEvent status = status(10, 1L);
+
+        assertEquals(10, provisional.available("1-A", status, 0));
+        provisional.admitted("1-A", 4);
+        provisional.admitted("1-A", 4);
+
+        assertEquals(2, provisional.available("1-A", status, 10));
+    }
+
+    @Test
+    void newerStatus_shouldResync() {
+        provisional.available("1-A", status(10, 1L), 0);
+        provisional.admitted("1-A", 10);
+
+        assertEquals(6, provisional.available("1-A", status(6, 2L), 10));
+    }
+
+    @Test
+    void staleCount_shouldResyncFromSameStatus() {
+        SectionStatusEvent status = status(10, 1L);
+        provisional.available("1-A", status, 0);
+        provisional.admitted("1-A", 10);
+
+        assertEquals(0, provisional.available("1-A", status, 999));
+        assertEquals(10, provisional.available("1-A", status, 1000));
+    }
+
+    @Test
+    void sections_shouldBeCountedSeparately() {
+        provisional.available("1-A", status(10, 1L), 0);
+        provisional.available("1-B", status(10, 1L), 0);
+        provisional.admitted("1-A", 3);
+
+        assertEquals(7, provisional.available("1-A", status(10, 1L), 0));
+        assertEquals(10, provisional.available("1-B", status(10, 1L), 0));
+    }
+
+    @Test
+    void zeroMaxAge_shouldAlwaysUseSnapshot() {
+        ProvisionalAvailability snapshotOnly = new ProvisionalAvailability(0, 1);
+        SectionStatusEvent status = status(10, 1L);
+        snapshotOnly.available("1-A", status, 0);
+        snapshotOnly.admitted("1-A", 10);
+
+        assertEquals(10, snapshotOnly.available("1-A", status, 0));
+    }
+
+    @Test
+    void eachTask_shouldCountDownItsShare() {
+        ProvisionalAvailability shared = new ProvisionalAvailability(1000, 4);
+        SectionStatusEvent status = status(100, 1L);
+
+        assertEquals(25, shared.available("1-A", status, 0));
+        shared.admitted("1-A", 20);
+
+        assertEquals(5, shared.available("1-A", status, 10));
+        assertEquals(80, shared.unclaimed("1-A", status, 10));
+    }
+
+    @Test
+    void groupLargerThanShare_shouldStillFitSnapshotWithoutStarvingLaterCommands() {
+        ProvisionalAvailability shared = new ProvisionalAvailability(1000, 32);
+        SectionStatusEvent status = status(40, 1L);
+
+        assertEquals(2, shared.available("1-A", status, 0));
+        assertTrue(shared.unclaimed("1-A", status, 0) >= 4);
+        shared.admitted("1-A", 4);
+
+        // Share used up: clamped at 0, and a 1-seat command still fits what is left of the snapshot
+        assertEquals(0, shared.available("1-A", status, 10));
+        assertEquals(36, shared.unclaimed("1-A", status, 10));
+    }
+
+    @Test
+    void ownAdmissions_shouldExhaustSnapshot() {
+        ProvisionalAvailability shared = new ProvisionalAvailability(1000, 32);
+        SectionStatusEvent status = status(4, 1L);
+        shared.available("1-A", status, 0);
+        shared.admitted("1-A", 4);
+
+        assertEquals(0, shared.unclaimed("1-A", status, 10));
+    }
+
+    private static SectionStatusEvent status(int availableCount, long timestamp) {
+        return SectionStatusEvent.newBuilder()
+                .setEventId(1L)
+                .setSection("A")
+                .setAvailableCount(availableCount)
+                .setTimestamp(timestamp)
+                .build();
+    }
+}
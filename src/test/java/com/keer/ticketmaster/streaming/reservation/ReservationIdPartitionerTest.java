@@ -0,0 +1,51 @@
+package com.keer.ticketmaster.streaming.reservation;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationIdPartitionerTest {
+
+    private final ReservationIdPartitioner partitioner = new ReservationIdPartitioner();
+
+    @Test
+    void generatedId_shouldCarryItsPartition() {
+        String id = ReservationIds.generate(27);
+
+        assertEquals(18, id.length());
+        assertEquals(27, ReservationIds.partitionOf(id));
+        assertEquals(27, partitioner.partition("reservation-completed", id, 32));
+    }
+
+    @Test
+    void generatedIds_shouldBeUnique() {
+        assertNotEquals(ReservationIds.generate(0), ReservationIds.generate(0));
+    }
+
+    @Test
+    void legacyUuid_shouldBeHashedAsBefore() {
+        String id = UUID.randomUUID().toString();
+        int expected = Utils.toPositive(Utils.murmur2(Serdes.String().serializer().serialize("t", id))) % 32;
+
+        assertEquals(-1, ReservationIds.partitionOf(id));
+        assertEquals(expected, partitioner.partition("reservation-completed", id, 32));
+    }
+
+    @Test
+    void partitionBeyondTopic_shouldFallBackToHash() {
+        String id = ReservationIds.generate(40);
+
+        int partition = partitioner.partition("reservation-completed", id, 32);
+
+        assertTrue(partition >= 0 && partition < 32);
+    }
+
+    @Test
+    void partitionOutOfRange_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ReservationIds.generate(256));
+    }
+}
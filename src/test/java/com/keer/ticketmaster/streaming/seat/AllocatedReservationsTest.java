@@ -0,0 +1,52 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.streaming.reservation.ReservationIds;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocatedReservationsTest {
+
+    @Test
+    void addedIds_shouldAlwaysBeFound() {
+        AllocatedReservations filter = new AllocatedReservations(AllocatedReservations.MIN_CAPACITY);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < AllocatedReservations.MIN_CAPACITY; i++) {
+            String id = ReservationIds.generate(i % 32);
+            ids.add(id);
+            filter.add(id);
+        }
+
+        assertTrue(ids.stream().allMatch(filter::mightContain));
+        assertFalse(filter.isFull());
+    }
+
+    @Test
+    void unseenIds_shouldRarelyMatchWithinCapacity() {
+        AllocatedReservations filter = new AllocatedReservations(AllocatedReservations.MIN_CAPACITY);
+        for (int i = 0; i < AllocatedReservations.MIN_CAPACITY; i++) {
+            filter.add(ReservationIds.generate(0));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(ReservationIds.generate(0))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void moreIdsThanCapacity_shouldReportFull() {
+        AllocatedReservations filter = new AllocatedReservations(AllocatedReservations.MIN_CAPACITY);
+        for (int i = 0; i <= AllocatedReservations.MIN_CAPACITY; i++) {
+            filter.add("r" + i);
+        }
+
+        assertTrue(filter.isFull());
+    }
+}
@@ -0,0 +1,117 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+import com.keer.ticketmaster.config.KafkaConstants;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatAllocationBatchingTest extends StreamProcessorTestBase {
+
+    private static final Duration WINDOW = Duration.ofMillis(50);
+
+    @Override
+    protected int allocationBatchSize() {
+        return 3;
+    }
+
+    @Override
+    protected Duration allocationBatchWindow() {
+        return WINDOW;
+    }
+
+    @Test
+    void fullBatch_shouldAllocateInArrivalOrder() {
+        initSection(1L, "A", 1, 5);
+
+        pipeAllocationRequest("r1", 1L, "A", 2);
+        pipeAllocationRequest("r2", 1L, "A", 2);
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertEquals(2, getBufferStore().approximateNumEntries());
+
+        pipeAllocationRequest("r3", 1L, "A", 2);
+
+        List<ReservationCompletedEvent> results = seatAllocationResultOutput.readValuesToList();
+        assertEquals(List.of("r1", "r2", "r3"), results.stream().map(ReservationCompletedEvent::getReservationId).toList());
+        assertEquals(List.of("A-1", "A-2"), SeatLabels.of(results.get(0)));
+        assertEquals(List.of("A-3", "A-4"), SeatLabels.of(results.get(1)));
+        assertEquals(AllocationStatus.REJECTED, results.get(2).getAllocationStatus());
+
+        assertEquals(1, getSeatInventoryStore().get("1-A").getAvailableCount());
+        assertEquals(0, getBufferStore().approximateNumEntries());
+
+        // Init status, then a single status for the whole batch
+        List<SectionStatusEvent> statuses = sectionStatusOutput.readValuesToList();
+        assertEquals(2, statuses.size());
+        assertEquals(5, statuses.get(0).getAvailableCount());
+        assertEquals(1, statuses.get(1).getAvailableCount());
+    }
+
+    @Test
+    void unseatableCommand_shouldBeRejectedWithoutBuffering() {
+        initSection(1L, "A", 1, 5);
+        pipeAllocationRequest("r1", 1L, "A", 2);
+
+        pipeAllocationRequest("r2", 1L, "A", 6);
+
+        ReservationCompletedEvent rejected = seatAllocationResultOutput.readValue();
+        assertEquals("r2", rejected.getReservationId());
+        assertEquals(AllocationStatus.REJECTED, rejected.getAllocationStatus());
+        assertEquals(1, getBufferStore().approximateNumEntries());
+    }
+
+    @Test
+    void batchWindow_shouldDrainPartialBatch() {
+        initSection(1L, "A", 1, 5);
+
+        pipeAllocationRequest("r1", 1L, "A", 1);
+        assertTrue(seatAllocationResultOutput.isEmpty());
+
+        testDriver.advanceWallClockTime(WINDOW);
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals("r1", event.getReservationId());
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(0, getBufferStore().approximateNumEntries());
+    }
+
+    @Test
+    void batches_shouldBeKeptPerSection() {
+        initSection(1L, "A", 1, 5);
+        initSection(1L, "B", 1, 5);
+
+        pipeAllocationRequest("a1", 1L, "A", 1);
+        pipeAllocationRequest("b1", 1L, "B", 1);
+        pipeAllocationRequest("a2", 1L, "A", 1);
+        pipeAllocationRequest("a3", 1L, "A", 1);
+
+        assertEquals(List.of("a1", "a2", "a3"), seatAllocationResultOutput.readValuesToList().stream()
+                .map(ReservationCompletedEvent::getReservationId).toList());
+
+        testDriver.advanceWallClockTime(WINDOW);
+        assertEquals("b1", seatAllocationResultOutput.readValue().getReservationId());
+    }
+
+    @Test
+    void bufferKeySequence_shouldSortNumerically() {
+        for (long value : new long[]{0, 9, 10, 255, 1L << 40, Long.MAX_VALUE, -1}) {
+            assertEquals(String.format("%016x", value), SeatAllocationProcessor.sortableHex(value));
+        }
+    }
+
+    private void pipeAllocationRequest(String reservationId, long eventId, String section, int seatCount) {
+        ReservationCommand command = buildReservationCommand(reservationId, eventId, section, seatCount, "user1");
+        seatAllocationRequestInput.pipeInput(eventId + "-" + section, command);
+    }
+
+    private KeyValueStore<String, ReservationCommand> getBufferStore() {
+        return testDriver.getKeyValueStore(KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE);
+    }
+}
@@ -1,11 +1,15 @@
 package com.keer.ticketmaster.streaming.seat;
 
+import com.keer.ticketmaster.avro.AllocationStatus;
 import com.keer.ticketmaster.avro.ReservationCommand;
 import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.avro.SectionInitCommand;
 import com.keer.ticketmaster.avro.SectionSeatState;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,18 +23,18 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         pipeAllocationRequest("r1", 1L, "A", 3, "user1");
 
         ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
-        assertEquals("CONFIRMED", event.getStatus());
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
         assertEquals("r1", event.getReservationId());
         assertEquals(3, event.getSeatCount());
-        assertEquals(List.of("A-1", "A-2", "A-3"), event.getAllocatedSeats());
+        assertEquals(List.of("A-1", "A-2", "A-3"), SeatLabels.of(event));
 
         // Verify state store updated
-        SectionSeatState state = getSeatInventoryStore().get("1-A");
-        assertEquals(2, state.getAvailableCount());
-        assertEquals("RESERVED", state.getSeatStatuses().get("A-1"));
-        assertEquals("RESERVED", state.getSeatStatuses().get("A-2"));
-        assertEquals("RESERVED", state.getSeatStatuses().get("A-3"));
-        assertEquals("AVAILABLE", state.getSeatStatuses().get("A-4"));
+        SectionSeatMap seats = SectionSeatMap.from(getSeatInventoryStore().get("1-A"));
+        assertEquals(2, seats.getAvailableCount());
+        assertFalse(seats.isAvailable(0, 0));
+        assertFalse(seats.isAvailable(0, 1));
+        assertFalse(seats.isAvailable(0, 2));
+        assertTrue(seats.isAvailable(0, 3));
     }
 
     @Test
@@ -41,8 +45,8 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         pipeAllocationRequest("r1", 1L, "A", 3, "user1");
 
         ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
-        assertEquals("REJECTED", event.getStatus());
-        assertTrue(event.getAllocatedSeats().isEmpty());
+        assertEquals(AllocationStatus.REJECTED, event.getAllocationStatus());
+        assertTrue(event.getSeatRanges().isEmpty());
     }
 
     @Test
@@ -56,8 +60,8 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         pipeAllocationRequest("r1", 2L, "B", 3, "user1");
 
         ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
-        assertEquals("REJECTED", event.getStatus());
-        assertTrue(event.getAllocatedSeats().isEmpty());
+        assertEquals(AllocationStatus.REJECTED, event.getAllocationStatus());
+        assertTrue(event.getSeatRanges().isEmpty());
     }
 
     @Test
@@ -68,8 +72,8 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         pipeAllocationRequest("r1", 1L, "A", 3, "user1");
 
         ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
-        assertEquals("CONFIRMED", event.getStatus());
-        assertEquals(List.of("A-1", "A-2", "A-3"), event.getAllocatedSeats());
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(List.of("A-1", "A-2", "A-3"), SeatLabels.of(event));
 
         SectionSeatState state = getSeatInventoryStore().get("1-A");
         assertEquals(0, state.getAvailableCount());
@@ -83,7 +87,7 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         pipeAllocationRequest("r1", 1L, "A", 1, "user1");
 
         ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
-        assertEquals("REJECTED", event.getStatus());
+        assertEquals(AllocationStatus.REJECTED, event.getAllocationStatus());
     }
 
     @Test
@@ -91,8 +95,8 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         pipeAllocationRequest("r1", 99L, "Z", 1, "user1");
 
         ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
-        assertEquals("REJECTED", event.getStatus());
-        assertTrue(event.getAllocatedSeats().isEmpty());
+        assertEquals(AllocationStatus.REJECTED, event.getAllocationStatus());
+        assertTrue(event.getSeatRanges().isEmpty());
     }
 
     @Test
@@ -102,21 +106,21 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
 
         pipeAllocationRequest("r1", 1L, "A", 2, "user1");
         ReservationCompletedEvent e1 = seatAllocationResultOutput.readValue();
-        assertEquals("CONFIRMED", e1.getStatus());
+        assertEquals(AllocationStatus.CONFIRMED, e1.getAllocationStatus());
 
         SectionSeatState state1 = getSeatInventoryStore().get("1-A");
         assertEquals(3, state1.getAvailableCount());
 
         pipeAllocationRequest("r2", 1L, "A", 2, "user2");
         ReservationCompletedEvent e2 = seatAllocationResultOutput.readValue();
-        assertEquals("CONFIRMED", e2.getStatus());
+        assertEquals(AllocationStatus.CONFIRMED, e2.getAllocationStatus());
 
         SectionSeatState state2 = getSeatInventoryStore().get("1-A");
         assertEquals(1, state2.getAvailableCount());
 
         pipeAllocationRequest("r3", 1L, "A", 2, "user3");
         ReservationCompletedEvent e3 = seatAllocationResultOutput.readValue();
-        assertEquals("REJECTED", e3.getStatus());
+        assertEquals(AllocationStatus.REJECTED, e3.getAllocationStatus());
     }
 
     @Test
@@ -134,6 +138,135 @@ class SeatAllocationProcessorTest extends StreamProcessorTestBase {
         assertEquals("A", statusEvent.getSection());
     }
 
+    @Test
+    void rejectedReservation_shouldNotEmitStatus() {
+        initSection(1L, "A", 1, 2);
+        drainSectionStatus();
+
+        pipeAllocationRequest("r1", 1L, "A", 5, "user1");
+
+        assertEquals(AllocationStatus.REJECTED, seatAllocationResultOutput.readValue().getAllocationStatus());
+        assertTrue(sectionStatusOutput.isEmpty());
+    }
+
+    @Test
+    void noSectionData_shouldNotEmitStatus() {
+        pipeAllocationRequest("r1", 99L, "Z", 1, "user1");
+
+        seatAllocationResultOutput.readValue();
+
+        assertTrue(sectionStatusOutput.isEmpty());
+    }
+
+    @Test
+    void groupNeverStraddlesRows() {
+        initSection(1L, "A", 2, 3, List.of("A-1"));
+        drainSectionStatus();
+
+        pipeAllocationRequest("r1", 1L, "A", 3, "user1");
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(List.of("A-4", "A-5", "A-6"), SeatLabels.of(event));
+
+        pipeAllocationRequest("r2", 1L, "A", 3, "user2");
+        assertEquals(AllocationStatus.REJECTED, seatAllocationResultOutput.readValue().getAllocationStatus());
+    }
+
+    @Test
+    void sectionStrategy_shouldComeFromInitCommand() {
+        initSection(1L, "A", 1, 9, List.of(), "CENTER_PREFERRED");
+        drainSectionStatus();
+
+        pipeAllocationRequest("r1", 1L, "A", 3, "user1");
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals(List.of("A-4", "A-5", "A-6"), SeatLabels.of(event));
+    }
+
+    @Test
+    void hotSection_shouldStayDecodedAcrossRequestsAndBeFlushedOnCommit() {
+        initSection(1L, "A", 1, 10);
+        drainSectionStatus();
+
+        pipeAllocationRequest("r1", 1L, "A", 2, "user1");
+        SectionSeatMap live = getSeatInventoryCache().get("1-A");
+        pipeAllocationRequest("r2", 1L, "A", 2, "user2");
+
+        assertSame(live, getSeatInventoryCache().get("1-A"));
+        assertEquals(6, live.getAvailableCount());
+        assertEquals(6, getSeatInventoryStore().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void invalidatedCache_shouldResumeFromFlushedState() {
+        initSection(1L, "A", 1, 4);
+        drainSectionStatus();
+        pipeAllocationRequest("r1", 1L, "A", 2, "user1");
+
+        getSeatInventoryCache().invalidate();
+        pipeAllocationRequest("r2", 1L, "A", 2, "user2");
+        seatAllocationResultOutput.readValue();
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(List.of("A-3", "A-4"), SeatLabels.of(event));
+    }
+
+    @Test
+    void shardCommand_shouldAllocateFromItsShardWithGlobalLabels() {
+        sectionInitInput.pipeInput("1-A", SectionInitCommand.newBuilder()
+                .setEventId(1L)
+                .setSection("A")
+                .setShardCount(3)
+                .setRows(5)
+                .setSeatsPerRow(2)
+                .build());
+        drainSectionStatus();
+
+        ReservationCommand command = buildReservationCommand("r1", 1L, "A", 2, "user1");
+        command.setShard(2);
+        seatAllocationRequestInput.pipeInput("1-A#2", command);
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(2, event.getShard());
+        assertEquals(List.of(new SeatRange(3, 0, 2)), event.getSeatRanges());
+        assertEquals(List.of("A-7", "A-8"), SeatLabels.of(event));
+
+        var status = sectionStatusOutput.readKeyValue();
+        assertEquals("1-A#2", status.key);
+        assertEquals(2, status.value.getAvailableCount());
+        assertEquals(4, getSeatInventoryStore().get("1-A#1").getAvailableCount());
+    }
+
+    @Test
+    void legacyMapState_shouldBeMigratedOnAllocation() {
+        SectionSeatState legacy = SectionSeatState.newBuilder()
+                .setEventId(1L)
+                .setSection("A")
+                .setSeatStatuses(Map.of(
+                        "A-1", "RESERVED",
+                        "A-2", "AVAILABLE",
+                        "A-3", "AVAILABLE",
+                        "A-4", "RESERVED"))
+                .setAvailableCount(2)
+                .build();
+        getSeatInventoryStore().put("1-A", legacy);
+
+        pipeAllocationRequest("r1", 1L, "A", 2, "user1");
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.CONFIRMED, event.getAllocationStatus());
+        assertEquals(List.of("A-2", "A-3"), SeatLabels.of(event));
+
+        SectionSeatState migrated = getSeatInventoryStore().get("1-A");
+        assertTrue(migrated.getSeatStatuses().isEmpty());
+        assertEquals(1, migrated.getRows());
+        assertEquals(4, migrated.getSeatsPerRow());
+        assertEquals(0, migrated.getAvailableCount());
+    }
+
     private void pipeAllocationRequest(String reservationId, long eventId, String section, int seatCount, String userId) {
         String key = eventId + "-" + section;
         ReservationCommand command = buildReservationCommand(reservationId, eventId, section, seatCount, userId);
@@ -0,0 +1,97 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.CancelReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatCancellationTest extends StreamProcessorTestBase {
+
+    @Override
+    protected Duration reservationRetention() {
+        return Duration.ofHours(1);
+    }
+
+    @Test
+    void cancel_shouldReleaseSeatsAndPublishStatus() {
+        initSection(1L, "A", 1, 4);
+        pipeAllocationRequest("r1", 4);
+        ReservationCompletedEvent confirmed = seatAllocationResultOutput.readValue();
+        sectionStatusOutput.readValuesToList();
+
+        pipeCancel("r1");
+
+        ReservationCompletedEvent cancelled = seatAllocationResultOutput.readValue();
+        assertEquals("r1", cancelled.getReservationId());
+        assertEquals(AllocationStatus.CANCELLED, cancelled.getAllocationStatus());
+        assertEquals(confirmed.getSeatRanges(), cancelled.getSeatRanges());
+        assertEquals(4, sectionStatusOutput.readValue().getAvailableCount());
+
+        pipeAllocationRequest("r2", 4);
+        assertEquals(AllocationStatus.CONFIRMED, seatAllocationResultOutput.readValue().getAllocationStatus());
+    }
+
+    @Test
+    void repeatedCancel_shouldNotReleaseReallocatedSeats() {
+        initSection(1L, "A", 1, 4);
+        pipeAllocationRequest("r1", 4);
+        pipeCancel("r1");
+        pipeAllocationRequest("r2", 4);
+        seatAllocationResultOutput.readValuesToList();
+        sectionStatusOutput.readValuesToList();
+
+        pipeCancel("r1");
+
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertTrue(sectionStatusOutput.isEmpty());
+        assertEquals(0, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void cancelOfRejected_shouldBeIgnored() {
+        initSection(1L, "A", 1, 2);
+        pipeAllocationRequest("r1", 3);
+        seatAllocationResultOutput.readValue();
+
+        pipeCancel("r1");
+
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertEquals(2, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void allocationPastRetention_shouldBeDroppedAndNoLongerCancellable() {
+        initSection(1L, "A", 1, 4);
+        pipeAllocationRequest("r1", 2);
+        testDriver.advanceWallClockTime(Duration.ofHours(2));
+        pipeAllocationRequest("r2", 2);
+        seatAllocationResultOutput.readValuesToList();
+
+        pipeCancel("r1");
+
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertEquals(0, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    private void pipeAllocationRequest(String reservationId, int seatCount) {
+        seatAllocationRequestInput.pipeInput("1-A",
+                buildReservationCommand(reservationId, 1L, "A", seatCount, "user1"));
+    }
+
+    private void pipeCancel(String reservationId) {
+        cancellationInput.pipeInput("1-A", cancelCommand(reservationId));
+    }
+
+    static CancelReservationCommand cancelCommand(String reservationId) {
+        return CancelReservationCommand.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(1L)
+                .setSection("A")
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+    }
+}
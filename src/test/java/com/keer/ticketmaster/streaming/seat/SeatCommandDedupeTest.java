@@ -0,0 +1,88 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatCommandDedupeTest extends StreamProcessorTestBase {
+
+    @Test
+    void replayedCommand_shouldReturnOriginalResultWithoutAllocating() {
+        initSection(1L, "A", 1, 4);
+        ReservationCommand command = buildReservationCommand("r1", 1L, "A", 2, "user1");
+
+        seatAllocationRequestInput.pipeInput("1-A", command);
+        seatAllocationRequestInput.pipeInput("1-A", command);
+
+        ReservationCompletedEvent original = seatAllocationResultOutput.readValue();
+        ReservationCompletedEvent replayed = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.CONFIRMED, replayed.getAllocationStatus());
+        assertEquals(original.getSeatRanges(), replayed.getSeatRanges());
+        assertEquals(2, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void replayAfterSellOut_shouldReturnAllocationNotRejection() {
+        initSection(1L, "A", 1, 4);
+        ReservationCommand command = buildReservationCommand("r1", 1L, "A", 2, "user1");
+        seatAllocationRequestInput.pipeInput("1-A", command);
+        seatAllocationRequestInput.pipeInput("1-A", buildReservationCommand("r2", 1L, "A", 2, "user2"));
+        seatAllocationResultOutput.readValuesToList();
+
+        seatAllocationRequestInput.pipeInput("1-A", command);
+
+        ReservationCompletedEvent replayed = seatAllocationResultOutput.readValue();
+        assertEquals("r1", replayed.getReservationId());
+        assertEquals(AllocationStatus.CONFIRMED, replayed.getAllocationStatus());
+        assertTrue(seatAllocationResultOutput.isEmpty());
+    }
+
+    @Test
+    void replayedRejection_shouldBeTriedAgain() {
+        initSection(1L, "A", 1, 2);
+        ReservationCommand command = buildReservationCommand("r1", 1L, "A", 2, "user1");
+        seatAllocationRequestInput.pipeInput("1-A", buildReservationCommand("r0", 1L, "A", 2, "user0"));
+        seatAllocationRequestInput.pipeInput("1-A", command);
+        cancellationInput.pipeInput("1-A", SeatCancellationTest.cancelCommand("r0"));
+        seatAllocationResultOutput.readValuesToList();
+
+        seatAllocationRequestInput.pipeInput("1-A", command);
+
+        // Rejections are not recorded: the seats freed since then are allocated
+        assertEquals(AllocationStatus.CONFIRMED, seatAllocationResultOutput.readValue().getAllocationStatus());
+        assertEquals(0, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void resentCommandWithNewTimestamp_shouldStillNotAllocateAgain() {
+        initSection(1L, "A", 1, 4);
+        seatAllocationRequestInput.pipeInput("1-A", buildReservationCommand("r1", 1L, "A", 2, "user1"));
+        ReservationCommand resent = buildReservationCommand("r1", 1L, "A", 2, "user1");
+        resent.setTimestamp(resent.getTimestamp() + 1000);
+
+        seatAllocationRequestInput.pipeInput("1-A", resent);
+
+        List<ReservationCompletedEvent> results = seatAllocationResultOutput.readValuesToList();
+        assertEquals(results.get(0).getSeatRanges(), results.get(1).getSeatRanges());
+        assertEquals(2, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void replayAfterCancel_shouldNotAllocateAgain() {
+        initSection(1L, "A", 1, 4);
+        ReservationCommand command = buildReservationCommand("r1", 1L, "A", 4, "user1");
+        seatAllocationRequestInput.pipeInput("1-A", command);
+        cancellationInput.pipeInput("1-A", SeatCancellationTest.cancelCommand("r1"));
+        seatAllocationResultOutput.readValuesToList();
+
+        seatAllocationRequestInput.pipeInput("1-A", command);
+
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertEquals(4, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+}
@@ -0,0 +1,141 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.HoldConfirmCommand;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.avro.SeatRange;
+import com.keer.ticketmaster.config.KafkaConstants;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldTest extends StreamProcessorTestBase {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Override
+    protected Duration holdTtl() {
+        return TTL;
+    }
+
+    @Test
+    void allocation_shouldBeHeldUntilDeadline() {
+        initSection(1L, "A", 1, 4);
+
+        pipeAllocationRequest("r1", 2);
+
+        ReservationCompletedEvent event = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.HELD, event.getAllocationStatus());
+        assertEquals(List.of(new SeatRange(0, 0, 2)), event.getSeatRanges());
+        assertTrue(event.getHoldExpiresAt() > 0);
+        assertEquals(1, openHolds());
+        assertEquals(2, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void expiredHold_shouldReleaseSeatsAndPublishStatus() {
+        initSection(1L, "A", 1, 4);
+        pipeAllocationRequest("r1", 4);
+        seatAllocationResultOutput.readValue();
+        sectionStatusOutput.readValuesToList();
+
+        testDriver.advanceWallClockTime(TTL.minusSeconds(2));
+        assertTrue(seatAllocationResultOutput.isEmpty());
+
+        testDriver.advanceWallClockTime(Duration.ofSeconds(2));
+
+        ReservationCompletedEvent expired = seatAllocationResultOutput.readValue();
+        assertEquals("r1", expired.getReservationId());
+        assertEquals(AllocationStatus.EXPIRED, expired.getAllocationStatus());
+        assertEquals(4, sectionStatusOutput.readValue().getAvailableCount());
+        assertEquals(0, openHolds());
+
+        pipeAllocationRequest("r2", 4);
+        assertEquals(AllocationStatus.HELD, seatAllocationResultOutput.readValue().getAllocationStatus());
+    }
+
+    @Test
+    void confirmedHold_shouldNotExpire() {
+        initSection(1L, "A", 1, 4);
+        pipeAllocationRequest("r1", 2);
+        ReservationCompletedEvent held = seatAllocationResultOutput.readValue();
+
+        holdConfirmationInput.pipeInput("1-A", HoldConfirmCommand.newBuilder()
+                .setReservationId("r1")
+                .setEventId(1L)
+                .setSection("A")
+                .setHoldExpiresAt(held.getHoldExpiresAt())
+                .setTimestamp(System.currentTimeMillis())
+                .build());
+
+        ReservationCompletedEvent confirmed = seatAllocationResultOutput.readValue();
+        assertEquals(AllocationStatus.CONFIRMED, confirmed.getAllocationStatus());
+        assertEquals(held.getSeatRanges(), confirmed.getSeatRanges());
+        assertEquals(0, confirmed.getHoldExpiresAt());
+
+        testDriver.advanceWallClockTime(TTL.plusSeconds(1));
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertEquals(2, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void cancelledHold_shouldNotExpireLater() {
+        initSection(1L, "A", 1, 4);
+        pipeAllocationRequest("r1", 2);
+        seatAllocationResultOutput.readValue();
+
+        cancellationInput.pipeInput("1-A", SeatCancellationTest.cancelCommand("r1"));
+        assertEquals(AllocationStatus.CANCELLED, seatAllocationResultOutput.readValue().getAllocationStatus());
+        assertEquals(0, openHolds());
+
+        testDriver.advanceWallClockTime(TTL.plusSeconds(1));
+        assertTrue(seatAllocationResultOutput.isEmpty());
+        assertEquals(4, getSeatInventoryCache().get("1-A").getAvailableCount());
+    }
+
+    @Test
+    void holds_shouldExpireInDeadlineOrder() {
+        initSection(1L, "A", 1, 10);
+        pipeAllocationRequest("r1", 1);
+        testDriver.advanceWallClockTime(Duration.ofSeconds(30));
+        pipeAllocationRequest("r2", 1);
+        seatAllocationResultOutput.readValuesToList();
+
+        testDriver.advanceWallClockTime(TTL.minusSeconds(29));
+        assertEquals(List.of("r1"), expiredIds());
+
+        testDriver.advanceWallClockTime(Duration.ofSeconds(30));
+        assertEquals(List.of("r2"), expiredIds());
+    }
+
+    private List<String> expiredIds() {
+        return seatAllocationResultOutput.readValuesToList().stream()
+                .filter(event -> event.getAllocationStatus() == AllocationStatus.EXPIRED)
+                .map(ReservationCompletedEvent::getReservationId)
+                .toList();
+    }
+
+    /**
+     * Counted, as RocksDB only estimates its entry count.
+     */
+    private int openHolds() {
+        KeyValueStore<String, ReservationCompletedEvent> holdStore = testDriver.getKeyValueStore(KafkaConstants.SEAT_HOLD_STORE);
+        int count = 0;
+        try (KeyValueIterator<String, ReservationCompletedEvent> it = holdStore.all()) {
+            for (; it.hasNext(); it.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void pipeAllocationRequest(String reservationId, int seatCount) {
+        seatAllocationRequestInput.pipeInput("1-A",
+                buildReservationCommand(reservationId, 1L, "A", seatCount, "user1"));
+    }
+}
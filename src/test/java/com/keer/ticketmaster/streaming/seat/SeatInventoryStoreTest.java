@@ -0,0 +1,126 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.SectionSeatState;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatInventoryStoreTest {
+
+    @Mock
+    private KeyValueStore<String, SectionSeatState> inner;
+
+    private SeatInventoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SeatInventoryStore(inner, 2);
+    }
+
+    @Test
+    void get_shouldDecodeOnceAndServeLiveObject() {
+        when(inner.get("1-A")).thenReturn(SectionSeatMap.create(1L, "A", 1, 4).toState());
+
+        SectionSeatMap first = store.get("1-A");
+        first.reserve(first.findConsecutive(2), 2);
+
+        assertSame(first, store.get("1-A"));
+        assertEquals(2, store.get("1-A").getAvailableCount());
+        verify(inner, times(1)).get("1-A");
+    }
+
+    @Test
+    void get_unknownSection_shouldReturnNull() {
+        assertNull(store.get("9-Z"));
+    }
+
+    @Test
+    void put_shouldOnlyWriteThroughOnFlush() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 1, 4);
+        store.put("1-A", seats);
+        seats.reserve("A-1");
+        store.put("1-A", seats);
+
+        verify(inner, never()).put(anyString(), any());
+
+        store.flush();
+
+        ArgumentCaptor<SectionSeatState> written = ArgumentCaptor.forClass(SectionSeatState.class);
+        verify(inner, times(1)).put(eq("1-A"), written.capture());
+        verify(inner).flush();
+        assertEquals(3, written.getValue().getAvailableCount());
+
+        store.flush();
+        verify(inner, times(1)).put(anyString(), any());
+    }
+
+    @Test
+    void evictingDirtySection_shouldWriteItBack() {
+        store.put("1-A", SectionSeatMap.create(1L, "A", 1, 4));
+        store.put("1-B", SectionSeatMap.create(1L, "B", 1, 4));
+        store.get("1-A");
+
+        store.put("1-C", SectionSeatMap.create(1L, "C", 1, 4));
+
+        // 1-B is least recently used
+        verify(inner).put(eq("1-B"), any());
+        verify(inner, never()).put(eq("1-A"), any());
+    }
+
+    @Test
+    void init_shouldDropCachedAndUnflushedSections() {
+        store.put("1-A", SectionSeatMap.create(1L, "A", 1, 4));
+
+        store.init(mock(StateStoreContext.class), store);
+        store.flush();
+
+        verify(inner, never()).put(anyString(), any());
+        assertNull(store.get("1-A"));
+    }
+
+    @Test
+    void mayFit_shouldFollowLongestFreeRunWithoutReading() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 2, 4);
+        store.put("1-A", seats);
+        assertTrue(store.mayFit("1-A", 4));
+
+        seats.reserve(seats.findConsecutive(4), 4);
+        seats.reserve(seats.findConsecutive(2), 2);
+        store.put("1-A", seats);
+
+        assertTrue(store.mayFit("1-A", 2));
+        assertFalse(store.mayFit("1-A", 3));
+        verify(inner, never()).get(anyString());
+    }
+
+    @Test
+    void mayFit_shouldRememberSoldOutSectionAfterEviction() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 1, 2);
+        seats.reserve(seats.findConsecutive(2), 2);
+        store.put("1-A", seats);
+        store.put("1-B", SectionSeatMap.create(1L, "B", 1, 4));
+        store.put("1-C", SectionSeatMap.create(1L, "C", 1, 4));
+
+        assertFalse(store.mayFit("1-A", 1));
+        verify(inner, never()).get(anyString());
+    }
+
+    @Test
+    void mayFit_unknownSection_shouldBeRejectedOnceLookedUp() {
+        assertTrue(store.mayFit("9-Z", 1));
+
+        assertNull(store.get("9-Z"));
+
+        assertFalse(store.mayFit("9-Z", 1));
+    }
+}
@@ -0,0 +1,172 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.AllocationStatus;
+import com.keer.ticketmaster.avro.ReservationCommand;
+import com.keer.ticketmaster.avro.ReservationCompletedEvent;
+import com.keer.ticketmaster.config.KafkaConstants;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The sold-out path of {@link SeatAllocationProcessor} against mocked stores, to show which stores it reads.
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatRejectPathTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Mock
+    private SeatInventoryStore seatStore;
+
+    @Mock
+    private KeyValueStore<String, ReservationCommand> bufferStore;
+
+    @Mock
+    private KeyValueStore<String, ReservationCompletedEvent> holdStore;
+
+    @Mock
+    private WindowStore<String, ReservationCompletedEvent> reservationStore;
+
+    private MockProcessorContext<String, SpecificRecord> context;
+    private SeatAllocationProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        when(seatStore.name()).thenReturn(KafkaConstants.SEAT_INVENTORY_STORE);
+        when(bufferStore.name()).thenReturn(KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE);
+        when(holdStore.name()).thenReturn(KafkaConstants.SEAT_HOLD_STORE);
+        when(reservationStore.name()).thenReturn(KafkaConstants.SEAT_RESERVATION_STORE);
+        when(bufferStore.all()).thenReturn(iterator(List.of()));
+
+        context = new MockProcessorContext<>();
+        context.setCurrentSystemTimeMs(NOW);
+        context.addStateStore(seatStore);
+        context.addStateStore(bufferStore);
+        context.addStateStore(holdStore);
+        context.addStateStore(reservationStore);
+        processor = new SeatAllocationProcessor(1, Duration.ofMillis(5), Duration.ZERO, Duration.ZERO, Duration.ofDays(30));
+    }
+
+    @Test
+    void soldOutRejection_shouldNotReadAnyStore() {
+        when(reservationStore.fetchAll(anyLong(), anyLong())).thenReturn(iterator(List.of()));
+        processor.init(context);
+        clearInvocations(seatStore, bufferStore, holdStore, reservationStore);
+        when(seatStore.mayFit("1-A", 2)).thenReturn(false);
+
+        processor.process(new Record<>("1-A", command("r1"), NOW));
+
+        assertEquals(AllocationStatus.REJECTED, forwarded().getAllocationStatus());
+        verify(seatStore).mayFit("1-A", 2);
+        verifyNoMoreInteractions(seatStore);
+        verifyNoInteractions(reservationStore, bufferStore, holdStore);
+    }
+
+    @Test
+    void allocationFromBeforeRestart_shouldStillBeReplayedWhenSoldOut() {
+        ReservationCompletedEvent allocation = ReservationCompletedEvent.newBuilder()
+                .setReservationId("r1")
+                .setEventId(1L)
+                .setUserId("user1")
+                .setAllocationStatus(AllocationStatus.CONFIRMED)
+                .setSection("A")
+                .setSeatCount(2)
+                .setTimestamp(NOW)
+                .build();
+        when(reservationStore.fetchAll(anyLong(), anyLong())).thenReturn(
+                iterator(List.of(KeyValue.pair(new Windowed<>("r1", new TimeWindow(NOW, NOW + 1)), allocation))));
+        when(reservationStore.fetch(eq("r1"), anyLong(), anyLong())).thenReturn(windowIterator(List.of(KeyValue.pair(NOW, allocation))));
+        when(seatStore.mayFit("1-A", 2)).thenReturn(false);
+        processor.init(context);
+
+        processor.process(new Record<>("1-A", command("r1"), NOW));
+
+        assertEquals(AllocationStatus.CONFIRMED, forwarded().getAllocationStatus());
+    }
+
+    private ReservationCompletedEvent forwarded() {
+        List<MockProcessorContext.CapturedForward<? extends String, ? extends SpecificRecord>> forwarded = context.forwarded();
+        assertEquals(1, forwarded.size());
+        return (ReservationCompletedEvent) forwarded.getFirst().record().value();
+    }
+
+    private static ReservationCommand command(String reservationId) {
+        return ReservationCommand.newBuilder()
+                .setReservationId(reservationId)
+                .setEventId(1L)
+                .setSection("A")
+                .setSeatCount(2)
+                .setUserId("user1")
+                .setTimestamp(NOW)
+                .build();
+    }
+
+    private static <K, V> KeyValueIterator<K, V> iterator(List<KeyValue<K, V>> entries) {
+        Iterator<KeyValue<K, V>> it = entries.iterator();
+        return new KeyValueIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public KeyValue<K, V> next() {
+                return it.next();
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public K peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static <V> WindowStoreIterator<V> windowIterator(List<KeyValue<Long, V>> entries) {
+        KeyValueIterator<Long, V> it = iterator(entries);
+        return new WindowStoreIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public KeyValue<Long, V> next() {
+                return it.next();
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public Long peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionCapacitiesTest {
+
+    @Test
+    void put_shouldOverwriteAndSurviveGrowth() {
+        SectionCapacities capacities = new SectionCapacities();
+        for (int i = 0; i < 1000; i++) {
+            capacities.put("1-" + i, i);
+        }
+        capacities.put("1-7", 0);
+
+        assertEquals(1000, capacities.size());
+        assertEquals(0, capacities.get("1-7"));
+        assertEquals(999, capacities.get("1-999"));
+        assertEquals(SectionCapacities.UNKNOWN, capacities.get("2-0"));
+    }
+
+    @Test
+    void clear_shouldForgetEverySection() {
+        SectionCapacities capacities = new SectionCapacities();
+        capacities.put("1-A", 4);
+
+        capacities.clear();
+
+        assertEquals(0, capacities.size());
+        assertEquals(SectionCapacities.UNKNOWN, capacities.get("1-A"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.keer.ticketmaster.streaming.seat;
 
+import com.keer.ticketmaster.avro.SectionInitCommand;
 import com.keer.ticketmaster.avro.SectionSeatState;
 import com.keer.ticketmaster.avro.SectionStatusEvent;
 import org.apache.kafka.streams.KeyValue;
@@ -25,10 +26,15 @@ class SectionInitProcessorTest extends StreamProcessorTestBase {
         assertEquals("A", state.getSection());
         assertEquals(6, state.getAvailableCount());
 
-        Map<String, String> seats = state.getSeatStatuses();
-        assertEquals(6, seats.size());
-        for (int i = 1; i <= 6; i++) {
-            assertEquals("AVAILABLE", seats.get("A-" + i));
+        assertEquals(2, state.getRows());
+        assertEquals(3, state.getSeatsPerRow());
+        assertTrue(state.getSeatStatuses().isEmpty());
+
+        SectionSeatMap seats = SectionSeatMap.from(state);
+        for (int row = 0; row < 2; row++) {
+            for (int seat = 0; seat < 3; seat++) {
+                assertTrue(seats.isAvailable(row, seat));
+            }
         }
 
         assertFalse(sectionStatusOutput.isEmpty());
@@ -46,9 +52,10 @@ class SectionInitProcessorTest extends StreamProcessorTestBase {
         SectionSeatState state = getSeatInventoryStore().get("1-A");
 
         assertEquals(4, state.getAvailableCount());
-        assertEquals("RESERVED", state.getSeatStatuses().get("A-1"));
-        assertEquals("RESERVED", state.getSeatStatuses().get("A-2"));
-        assertEquals("AVAILABLE", state.getSeatStatuses().get("A-3"));
+        SectionSeatMap seats = SectionSeatMap.from(state);
+        assertFalse(seats.isAvailable(0, 0));
+        assertFalse(seats.isAvailable(0, 1));
+        assertTrue(seats.isAvailable(0, 2));
 
         SectionStatusEvent statusEvent = sectionStatusOutput.readValue();
         assertEquals(4, statusEvent.getAvailableCount());
@@ -63,32 +70,81 @@ class SectionInitProcessorTest extends StreamProcessorTestBase {
 
         SectionSeatState state = getSeatInventoryStore().get("1-A");
         assertEquals(2, state.getAvailableCount());
-        assertEquals(2, state.getSeatStatuses().size());
+        assertEquals(1, state.getRows());
+        assertEquals(2, state.getSeatsPerRow());
 
         SectionStatusEvent statusEvent = sectionStatusOutput.readValue();
         assertEquals(2, statusEvent.getAvailableCount());
     }
 
     @Test
-    void zeroSeats_shouldProduceEmptyMap() {
+    void zeroSeats_shouldProduceEmptySection() {
         initSection(1L, "A", 0, 5);
 
         SectionSeatState state = getSeatInventoryStore().get("1-A");
         assertNotNull(state);
         assertEquals(0, state.getAvailableCount());
-        assertTrue(state.getSeatStatuses().isEmpty());
+        assertEquals(0, state.getTakenSeats().remaining());
 
         SectionStatusEvent statusEvent = sectionStatusOutput.readValue();
         assertEquals(0, statusEvent.getAvailableCount());
     }
 
     @Test
-    void zeroSeatsPerRow_shouldProduceEmptyMap() {
+    void zeroSeatsPerRow_shouldProduceEmptySection() {
         initSection(1L, "A", 3, 0);
 
         SectionSeatState state = getSeatInventoryStore().get("1-A");
         assertNotNull(state);
         assertEquals(0, state.getAvailableCount());
-        assertTrue(state.getSeatStatuses().isEmpty());
+        assertEquals(0, state.getTakenSeats().remaining());
+    }
+
+    @Test
+    void shardedInit_shouldSplitRowsAcrossShardsWithGlobalLabels() {
+        initShardedSection(1L, "A", 5, 2, 3, List.of("A-1", "A-9"));
+
+        // Rows 0 | 1-2 | 3-4
+        SectionSeatState shard0 = getSeatInventoryStore().get("1-A#0");
+        SectionSeatState shard1 = getSeatInventoryStore().get("1-A#1");
+        SectionSeatState shard2 = getSeatInventoryStore().get("1-A#2");
+        assertNull(getSeatInventoryStore().get("1-A"));
+
+        assertEquals(0, shard0.getRowOffset());
+        assertEquals(1, shard0.getRows());
+        assertEquals(1, shard0.getAvailableCount());
+        assertEquals(1, shard1.getRowOffset());
+        assertEquals(2, shard1.getRows());
+        assertEquals(4, shard1.getAvailableCount());
+        assertEquals(3, shard2.getRowOffset());
+        assertEquals(3, shard2.getAvailableCount());
+        assertFalse(SectionSeatMap.from(shard2).isAvailable(1, 0));
+
+        Map<String, SectionStatusEvent> statuses = sectionStatusOutput.readKeyValuesToMap();
+        assertEquals(3, statuses.get("1-A").getShardCount());
+        assertEquals(1, statuses.get("1-A#0").getAvailableCount());
+        assertEquals(4, statuses.get("1-A#1").getAvailableCount());
+        assertEquals(3, statuses.get("1-A#2").getAvailableCount());
+    }
+
+    @Test
+    void shardedInit_withFewerRowsThanShards_shouldStayUnsharded() {
+        initShardedSection(1L, "A", 1, 4, 3, List.of());
+
+        assertNotNull(getSeatInventoryStore().get("1-A"));
+        assertNull(getSeatInventoryStore().get("1-A#0"));
+        assertEquals(1, sectionStatusOutput.readValue().getShardCount());
+    }
+
+    private void initShardedSection(long eventId, String section, int rows, int seatsPerRow, int shardCount,
+                                    List<String> initialReserved) {
+        sectionInitInput.pipeInput(eventId + "-" + section, SectionInitCommand.newBuilder()
+                .setEventId(eventId)
+                .setSection(section)
+                .setShardCount(shardCount)
+                .setRows(rows)
+                .setSeatsPerRow(seatsPerRow)
+                .setInitialReserved(initialReserved)
+                .build());
     }
 }
@@ -0,0 +1,97 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.SeatRange;
+import org.junit.jupiter.api.Test;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionSeatMapTest {
+
+    @Test
+    void findConsecutive_shouldSkipRowsWithoutLongEnoughRun() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 3, 4);
+        seats.reserve("A-2");
+        seats.reserve("A-7");
+
+        // Row 0: _ X _ _   Row 1: _ _ X _   Row 2: _ _ _ _
+        assertEquals(2, seats.findConsecutive(2));
+        assertEquals(8, seats.findConsecutive(3));
+    }
+
+    @Test
+    void findConsecutive_shouldTrackReservations() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 2, 3);
+
+        assertEquals(new SeatRange(0, 0, 3), seats.reserve(seats.findConsecutive(3), 3));
+        assertEquals(new SeatRange(1, 0, 2), seats.reserve(seats.findConsecutive(2), 2));
+        assertEquals(-1, seats.findConsecutive(2));
+        assertEquals(5, seats.findConsecutive(1));
+    }
+
+    @Test
+    void findConsecutive_shouldWorkAcrossWordBoundaries() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 1, 130);
+        seats.reserve("A-60");
+
+        assertEquals(60, seats.findConsecutive(70));
+        assertEquals(-1, seats.findConsecutive(71));
+    }
+
+    @Test
+    void release_shouldReturnSeatsToSearch() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 2, 3);
+        SeatRange first = seats.reserve(seats.findConsecutive(3), 3);
+        seats.reserve(seats.findConsecutive(3), 3);
+        assertEquals(-1, seats.findConsecutive(1));
+
+        seats.release(first);
+        seats.release(first);
+
+        assertEquals(3, seats.getAvailableCount());
+        assertEquals(0, seats.findConsecutive(3));
+    }
+
+    @Test
+    void encodedState_shouldRoundTrip() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 100, 50);
+        seats.reserve(seats.findConsecutive(4), 4);
+
+        SectionSeatMap decoded = SectionSeatMap.from(seats.toState());
+
+        assertEquals(4996, decoded.getAvailableCount());
+        assertFalse(decoded.isAvailable(0, 3));
+        assertTrue(decoded.isAvailable(0, 4));
+        assertEquals(4, decoded.findConsecutive(46));
+        assertEquals(800, seats.toState().getTakenSeats().remaining());
+    }
+
+    @Test
+    void bestFit_shouldPickSmallestRunThatFits() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 2, 10, SeatAllocationStrategy.BEST_FIT);
+        seats.reserve("A-4");
+        seats.reserve("A-7");
+
+        // Row 0: _ _ _ X _ _ X _ _ _   Row 1: all free
+        assertEquals(4, seats.findConsecutive(2));
+        assertEquals(0, seats.findConsecutive(3));
+        assertEquals(10, seats.findConsecutive(4));
+    }
+
+    @Test
+    void centerPreferred_shouldPlaceGroupNearRowCenter() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 2, 10, SeatAllocationStrategy.CENTER_PREFERRED);
+
+        assertEquals(new SeatRange(0, 4, 2), seats.reserve(seats.findConsecutive(2), 2));
+        assertEquals(2, seats.findConsecutive(2));
+        assertEquals(1, seats.findConsecutive(3));
+    }
+
+    @Test
+    void strategy_shouldSurviveEncoding() {
+        SectionSeatMap seats = SectionSeatMap.create(1L, "A", 1, 4, SeatAllocationStrategy.CENTER_PREFERRED);
+
+        assertEquals(SeatAllocationStrategy.CENTER_PREFERRED, SectionSeatMap.from(seats.toState()).getAllocationStrategy());
+        assertEquals(SeatAllocationStrategy.FIRST_FIT, SeatAllocationStrategy.fromName("unknown"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.keer.ticketmaster.streaming.seat;
+
+import com.keer.ticketmaster.avro.SectionStatusEvent;
+import org.apache.kafka.streams.KeyValue;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionStatusCoalescingTest extends StreamProcessorTestBase {
+
+    private static final Duration INTERVAL = Duration.ofMillis(100);
+
+    @Override
+    protected Duration statusInterval() {
+        return INTERVAL;
+    }
+
+    @Test
+    void changesWithinInterval_shouldBePublishedOnceWithLatestCount() {
+        initSection(1L, "A", 1, 10);
+        sectionStatusOutput.readKeyValuesToList();
+
+        pipeAllocationRequest("r1", "A", 2);
+        pipeAllocationRequest("r2", "A", 2);
+        pipeAllocationRequest("r3", "A", 1);
+        assertTrue(sectionStatusOutput.isEmpty());
+
+        testDriver.advanceWallClockTime(INTERVAL);
+
+        List<KeyValue<String, SectionStatusEvent>> statuses = sectionStatusOutput.readKeyValuesToList();
+        assertEquals(1, statuses.size());
+        assertEquals("1-A", statuses.get(0).key);
+        assertEquals(5, statuses.get(0).value.getAvailableCount());
+
+        testDriver.advanceWallClockTime(INTERVAL);
+        assertTrue(sectionStatusOutput.isEmpty());
+    }
+
+    @Test
+    void soldOut_shouldBePublishedImmediately() {
+        initSection(1L, "A", 1, 4);
+        sectionStatusOutput.readKeyValuesToList();
+
+        pipeAllocationRequest("r1", "A", 2);
+        assertTrue(sectionStatusOutput.isEmpty());
+
+        pipeAllocationRequest("r2", "A", 2);
+
+        assertEquals(0, sectionStatusOutput.readValue().getAvailableCount());
+        testDriver.advanceWallClockTime(INTERVAL);
+        assertTrue(sectionStatusOutput.isEmpty());
+    }
+
+    @Test
+    void sectionsShouldBeCoalescedIndependently() {
+        initSection(1L, "A", 1, 10);
+        initSection(1L, "B", 1, 10);
+        sectionStatusOutput.readKeyValuesToList();
+
+        pipeAllocationRequest("a1", "A", 1);
+        pipeAllocationRequest("b1", "B", 3);
+        pipeAllocationRequest("a2", "A", 1);
+
+        testDriver.advanceWallClockTime(INTERVAL);
+
+        var statuses = sectionStatusOutput.readKeyValuesToMap();
+        assertEquals(2, statuses.size());
+        assertEquals(8, statuses.get("1-A").getAvailableCount());
+        assertEquals(7, statuses.get("1-B").getAvailableCount());
+    }
+
+    private void pipeAllocationRequest(String reservationId, String section, int seatCount) {
+        seatAllocationRequestInput.pipeInput("1-" + section,
+                buildReservationCommand(reservationId, 1L, section, seatCount, "user1"));
+    }
+}
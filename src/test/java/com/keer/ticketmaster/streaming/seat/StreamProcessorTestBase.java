@@ -2,36 +2,45 @@ package com.keer.ticketmaster.streaming.seat;
 
 import com.keer.ticketmaster.avro.*;
 import com.keer.ticketmaster.config.KafkaConstants;
+import com.keer.ticketmaster.streaming.PinnedAvroSerde;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.streams.*;
+import org.apache.kafka.streams.kstream.Branched;
 import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Produced;
-import org.apache.kafka.streams.kstream.ValueMapper;
 import org.apache.kafka.streams.state.KeyValueStore;
-import org.apache.kafka.streams.state.StoreBuilder;
 import org.apache.kafka.streams.state.Stores;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Properties;
 
 /**
  * Test base that mirrors the SeatProcessorTopology:
- * - section-init -> SectionInitProcessor -> section-status
- * - seat-allocation-requests -> SeatAllocationProcessor -> seat-allocation-results
- * - allocation results -> SectionStatusEmitter -> section-status
+ * - section-init -> (shard split) -> SectionInitProcessor -> section-status
+ * - seat-allocation-requests + seat-hold-confirmations + seat-cancellations -> SeatAllocationProcessor -> seat-allocation-results
+ *   (+ section-status whenever the section's available count changed)
  */
 public abstract class StreamProcessorTestBase {
 
+    protected static final int MAX_CACHED_SECTIONS = 4;
+
     protected TopologyTestDriver testDriver;
     protected TestInputTopic<String, SectionInitCommand> sectionInitInput;
     protected TestInputTopic<String, ReservationCommand> seatAllocationRequestInput;
+    protected TestInputTopic<String, HoldConfirmCommand> holdConfirmationInput;
+    protected TestInputTopic<String, CancelReservationCommand> cancellationInput;
     protected TestOutputTopic<String, SectionStatusEvent> sectionStatusOutput;
     protected TestOutputTopic<String, ReservationCompletedEvent> seatAllocationResultOutput;
 
@@ -42,50 +51,77 @@ public abstract class StreamProcessorTestBase {
         schemaRegistryClient = new MockSchemaRegistryClient();
         Map<String, String> serdeConfig = Map.of("schema.registry.url", "mock://test");
 
-        SpecificAvroSerde<ReservationCommand> commandSerde = newAvroSerde(serdeConfig);
-        SpecificAvroSerde<ReservationCompletedEvent> completedSerde = newAvroSerde(serdeConfig);
+        // Internal topics and the inventory changelog use the pinned serde, as with internal-serde=pinned
+        Serde<ReservationCommand> commandSerde = new PinnedAvroSerde<>(ReservationCommand.getClassSchema(), null);
+        Serde<ReservationCompletedEvent> completedSerde = new PinnedAvroSerde<>(ReservationCompletedEvent.getClassSchema(), null);
         SpecificAvroSerde<SectionInitCommand> sectionInitSerde = newAvroSerde(serdeConfig);
-        SpecificAvroSerde<SectionSeatState> seatStateSerde = newAvroSerde(serdeConfig);
+        Serde<SectionSeatState> seatStateSerde = new PinnedAvroSerde<>(SectionSeatState.getClassSchema(), null);
         SpecificAvroSerde<SectionStatusEvent> statusEventSerde = newAvroSerde(serdeConfig);
+        SpecificAvroSerde<HoldConfirmCommand> holdConfirmSerde = newAvroSerde(serdeConfig);
+        SpecificAvroSerde<CancelReservationCommand> cancelSerde = newAvroSerde(serdeConfig);
 
         StreamsBuilder builder = new StreamsBuilder();
 
-        StoreBuilder<KeyValueStore<String, SectionSeatState>> seatStoreBuilder =
-                Stores.keyValueStoreBuilder(
-                        Stores.persistentKeyValueStore(KafkaConstants.SEAT_INVENTORY_STORE),
+        builder.addStateStore(SeatInventoryStore.builder(
+                KafkaConstants.SEAT_INVENTORY_STORE, seatStateSerde, MAX_CACHED_SECTIONS));
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE),
+                        Serdes.String(),
+                        commandSerde)
+                .withCachingEnabled());
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(KafkaConstants.SEAT_HOLD_STORE),
+                Serdes.String(),
+                completedSerde));
+        builder.addStateStore(Stores.windowStoreBuilder(
+                        Stores.persistentWindowStore(KafkaConstants.SEAT_RESERVATION_STORE,
+                                reservationRetention(), reservationRetention(), false),
                         Serdes.String(),
-                        seatStateSerde
-                );
-        builder.addStateStore(seatStoreBuilder);
+                        completedSerde)
+                .withCachingEnabled());
 
-        // Init path: section-init -> SectionInitProcessor -> section-status
-        builder.stream(KafkaConstants.TOPIC_SECTION_INIT, Consumed.with(Serdes.String(), sectionInitSerde))
+        // Init path: section-init -> (shard split) -> SectionInitProcessor -> section-status
+        var inits = builder.stream(KafkaConstants.TOPIC_SECTION_INIT, Consumed.with(Serdes.String(), sectionInitSerde))
+                .split(Named.as("section-init"))
+                .branch((key, command) -> SectionShards.needsSplit(command), Branched.as("-sharded"))
+                .defaultBranch(Branched.as("-local"));
+
+        KStream<String, SectionInitCommand> sharded = inits.get("section-init-sharded");
+        sharded.flatMap((key, command) -> SectionShards.split(command))
+                .to(KafkaConstants.TOPIC_SECTION_INIT, Produced.with(Serdes.String(), sectionInitSerde));
+        sharded.mapValues(SectionShards::directoryStatus)
+                .to(KafkaConstants.TOPIC_SECTION_STATUS, Produced.with(Serdes.String(), statusEventSerde));
+
+        inits.get("section-init-local")
                 .process(SectionInitProcessor::new, KafkaConstants.SEAT_INVENTORY_STORE)
-                .mapValues((ValueMapper<SectionSeatState, SectionStatusEvent>) state ->
-                        SectionStatusEvent.newBuilder()
-                                .setEventId(state.getEventId())
-                                .setSection(state.getSection())
-                                .setAvailableCount(state.getAvailableCount())
-                                .setTimestamp(System.currentTimeMillis())
-                                .build())
                 .to(KafkaConstants.TOPIC_SECTION_STATUS, Produced.with(Serdes.String(), statusEventSerde));
 
-        // Allocation path: seat-allocation-requests -> SeatAllocationProcessor -> seat-allocation-results
-        var completedStream = builder.stream(KafkaConstants.TOPIC_SEAT_ALLOCATION_REQUESTS, Consumed.with(Serdes.String(), commandSerde))
-                .process(SeatAllocationProcessor::new, KafkaConstants.SEAT_INVENTORY_STORE);
-
-        completedStream.to(KafkaConstants.TOPIC_SEAT_ALLOCATION_RESULTS, Produced.with(Serdes.String(), completedSerde));
-
-        // Status update path: allocation results -> SectionStatusEmitter -> section-status
-        completedStream
-                .process(SectionStatusEmitter::new, KafkaConstants.SEAT_INVENTORY_STORE)
-                .mapValues((ValueMapper<SectionSeatState, SectionStatusEvent>) state ->
-                        SectionStatusEvent.newBuilder()
-                                .setEventId(state.getEventId())
-                                .setSection(state.getSection())
-                                .setAvailableCount(state.getAvailableCount())
-                                .setTimestamp(System.currentTimeMillis())
-                                .build())
+        // Allocation path: seat-allocation-requests -> SeatAllocationProcessor -> seat-allocation-results (+ section-status)
+        KStream<String, SpecificRecord> holdConfirmations = builder.stream(KafkaConstants.TOPIC_SEAT_HOLD_CONFIRMATIONS,
+                        Consumed.with(Serdes.String(), holdConfirmSerde))
+                .mapValues(command -> command);
+        KStream<String, SpecificRecord> cancellations = builder.stream(KafkaConstants.TOPIC_SEAT_CANCELLATIONS,
+                        Consumed.with(Serdes.String(), cancelSerde))
+                .mapValues(command -> command);
+        var allocationOutputs = builder.stream(KafkaConstants.TOPIC_SEAT_ALLOCATION_REQUESTS, Consumed.with(Serdes.String(), commandSerde))
+                .<SpecificRecord>mapValues(command -> command)
+                .merge(holdConfirmations)
+                .merge(cancellations)
+                .process(() -> new SeatAllocationProcessor(allocationBatchSize(), allocationBatchWindow(), statusInterval(),
+                                holdTtl(), reservationRetention()),
+                        KafkaConstants.SEAT_INVENTORY_STORE, KafkaConstants.SEAT_ALLOCATION_BUFFER_STORE,
+                        KafkaConstants.SEAT_HOLD_STORE, KafkaConstants.SEAT_RESERVATION_STORE)
+                .split(Named.as("allocation"))
+                .branch((key, value) -> value instanceof ReservationCompletedEvent, Branched.as("-results"))
+                .branch((key, value) -> value instanceof SectionStatusEvent, Branched.as("-status"))
+                .noDefaultBranch();
+
+        allocationOutputs.get("allocation-results")
+                .mapValues(value -> (ReservationCompletedEvent) value)
+                .to(KafkaConstants.TOPIC_SEAT_ALLOCATION_RESULTS, Produced.with(Serdes.String(), completedSerde));
+
+        allocationOutputs.get("allocation-status")
+                .mapValues(value -> (SectionStatusEvent) value)
                 .to(KafkaConstants.TOPIC_SECTION_STATUS, Produced.with(Serdes.String(), statusEventSerde));
 
         Topology topology = builder.build();
@@ -110,6 +146,18 @@ public abstract class StreamProcessorTestBase {
                 commandSerde.serializer()
         );
 
+        holdConfirmationInput = testDriver.createInputTopic(
+                KafkaConstants.TOPIC_SEAT_HOLD_CONFIRMATIONS,
+                new StringSerializer(),
+                holdConfirmSerde.serializer()
+        );
+
+        cancellationInput = testDriver.createInputTopic(
+                KafkaConstants.TOPIC_SEAT_CANCELLATIONS,
+                new StringSerializer(),
+                cancelSerde.serializer()
+        );
+
         sectionStatusOutput = testDriver.createOutputTopic(
                 KafkaConstants.TOPIC_SECTION_STATUS,
                 new StringDeserializer(),
@@ -130,8 +178,44 @@ public abstract class StreamProcessorTestBase {
         }
     }
 
+    /**
+     * Unbatched by default; subclasses override to run the topology in batching mode.
+     */
+    protected int allocationBatchSize() {
+        return 1;
+    }
+
+    protected Duration allocationBatchWindow() {
+        return Duration.ofMillis(5);
+    }
+
+    /**
+     * Every change is published by default; subclasses override to test coalescing.
+     */
+    protected Duration statusInterval() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Allocations are confirmed at once by default; subclasses override to test holds.
+     */
+    protected Duration holdTtl() {
+        return Duration.ZERO;
+    }
+
+    protected Duration reservationRetention() {
+        return Duration.ofDays(30);
+    }
+
+    /**
+     * The encoded RocksDB store, i.e. what has been flushed; the driver commits after every input record.
+     */
     protected KeyValueStore<String, SectionSeatState> getSeatInventoryStore() {
-        return testDriver.getKeyValueStore(KafkaConstants.SEAT_INVENTORY_STORE);
+        return getSeatInventoryCache().inner();
+    }
+
+    protected SeatInventoryStore getSeatInventoryCache() {
+        return (SeatInventoryStore) testDriver.getStateStore(KafkaConstants.SEAT_INVENTORY_STORE);
     }
 
     protected void initSection(long eventId, String section, int rows, int seatsPerRow) {
@@ -139,6 +223,11 @@ public abstract class StreamProcessorTestBase {
     }
 
     protected void initSection(long eventId, String section, int rows, int seatsPerRow, java.util.List<String> initialReserved) {
+        initSection(eventId, section, rows, seatsPerRow, initialReserved, "FIRST_FIT");
+    }
+
+    protected void initSection(long eventId, String section, int rows, int seatsPerRow,
+                               java.util.List<String> initialReserved, String allocationStrategy) {
         String key = eventId + "-" + section;
         SectionInitCommand command = SectionInitCommand.newBuilder()
                 .setEventId(eventId)
@@ -146,6 +235,7 @@ public abstract class StreamProcessorTestBase {
                 .setRows(rows)
                 .setSeatsPerRow(seatsPerRow)
                 .setInitialReserved(initialReserved)
+                .setAllocationStrategy(allocationStrategy)
                 .build();
         sectionInitInput.pipeInput(key, command);
     }
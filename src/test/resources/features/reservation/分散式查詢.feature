@@ -6,7 +6,7 @@
 
   場景: 兩個實例都能查到同一筆 reservation
     假如 系統啟動了兩個服務實例，分別在 port 8080 和 port 8081
-    假如 一筆預訂「res-multi-001」已寫入 reservation-completed topic，使用者為「user001」，狀態為「CONFIRMED」，座位為「A-001,A-002」
+    假如 一筆預訂「res-multi-001」已寫入 reservation-completed topic，使用者為「user001」，狀態為「CONFIRMED」，座位為「A-1,A-2」
     當 分別向兩個實例查詢預訂「res-multi-001」
     那麼 兩個實例都應成功回傳預訂資料
     並且 兩個實例回傳的預訂資料應完全一致
@@ -30,3 +30,15 @@
     當 使用者「user001」預訂活動的「A」區 3 個連續座位
     那麼 系統應該回傳 202 Accepted
     並且 等待預定處理完成後，預定狀態應為「REJECTED」
+
+  場景: 建立預訂並在同一個請求中取得結果
+    假如 系統中已存在一個場館，名稱為「台北小巨蛋」，地址為「台北市松山區南京東路四段2號」，容量為 15000
+    假如 系統中已存在一個活動，名稱為「五月天演唱會」，描述為「五月天 2026 巡迴演唱會」，日期為「2026-06-15」，關聯場館為該場館
+    假如 該活動已存在以下票券:
+      | seatNumber | price | status    |
+      | A-1        | 2800  | AVAILABLE |
+      | A-2        | 2800  | AVAILABLE |
+      | A-3        | 2800  | AVAILABLE |
+    當 使用者「user001」預訂活動的「A」區 2 個連續座位並等待結果
+    那麼 回應中的預定狀態應為「CONFIRMED」
+    並且 預定應包含 2 個「A」區的連續座位